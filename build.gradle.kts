@@ -2,6 +2,7 @@ plugins {
     java
     id("org.springframework.boot") version "4.0.2"
     id("io.spring.dependency-management") version "1.1.7"
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "com"
@@ -36,10 +37,13 @@ dependencies {
 //    implementation("org.springframework.boot:spring-boot-starter-data-elasticsearch")
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
     implementation("org.springframework.boot:spring-boot-starter-webmvc")
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
+    runtimeOnly("io.micrometer:micrometer-registry-prometheus")
     implementation("org.springframework.ai:spring-ai-starter-model-ollama")
     implementation("org.springframework.ai:spring-ai-starter-model-openai")
     compileOnly("org.projectlombok:lombok")
-    runtimeOnly("org.postgresql:postgresql")
+    // COPY 기반 대량 적재(CopyManager)에 드라이버 API를 직접 사용
+    implementation("org.postgresql:postgresql")
     annotationProcessor("org.projectlombok:lombok")
     // hibernate-vector for pgvector support (새로 추가)
     implementation("org.hibernate.orm:hibernate-vector")
@@ -61,6 +65,57 @@ dependencyManagement {
     }
 }
 
+// com.back.global.vector 의 SIMD 구현(jdk.incubator.vector). 모듈이 없으면 런타임에 스칼라 구현으로 대체된다.
+// 실행 가능한 jar 의 manifest 로는 모듈을 추가할 수 없으므로 JVM 옵션으로 넘긴다:
+//   java --add-modules jdk.incubator.vector -jar build/libs/back-0.0.1-SNAPSHOT.jar
+//   (또는 JDK_JAVA_OPTIONS="--add-modules jdk.incubator.vector")
+// 빼고 실행하면 기동 로그에 스칼라 구현을 쓴다는 안내가 남는다. 성능 비교는 ./gradlew jmh -Pjmh.includes=VectorMathBenchmark
+val vectorApiArgs = listOf("--add-modules", "jdk.incubator.vector")
+
+// incubator 모듈을 읽으면 javac 가 매번 경고를 내므로 SimdKernels 가 있는 main 컴파일에만 모듈을 추가한다.
+// 테스트와 벤치마크는 SimdKernels 를 float[] 시그니처로만 쓰므로 컴파일에는 모듈이 필요 없다(실행 시에는 아래에서 추가).
+tasks.named<JavaCompile>("compileJava") {
+    options.compilerArgs.addAll(vectorApiArgs)
+}
+
 tasks.withType<Test> {
     useJUnitPlatform()
+    jvmArgs(vectorApiArgs)
+}
+
+// 부하 테스트(@Tag("load"))는 기본 test 에서 빼고 loadTest 로만 실행한다
+tasks.named<Test>("test") {
+    useJUnitPlatform {
+        excludeTags("load")
+    }
+}
+
+// ./gradlew loadTest -Pload.concurrency=32 -Pload.duration=30s (app.* 도 넘길 수 있다. 예: -Papp.bulkhead.chat.max-concurrent=16)
+val loadTest by tasks.registering(Test::class) {
+    description = "Runs the REST API load test against local fake models."
+    group = "verification"
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    useJUnitPlatform {
+        includeTags("load")
+    }
+    systemProperties(project.properties.filterKeys { it.startsWith("load.") || it.startsWith("app.") })
+    outputs.upToDateWhen { false }
+    testLogging {
+        showStandardStreams = true
+    }
+}
+
+tasks.named<org.springframework.boot.gradle.tasks.run.BootRun>("bootRun") {
+    jvmArgs(vectorApiArgs)
+}
+
+// 마이크로벤치마크 (src/jmh/java). ./gradlew jmh, 결과는 build/results/jmh/results.json
+// 일부만 돌릴 때: ./gradlew jmh -Pjmh.includes=VectorAverage
+jmh {
+    jmhVersion = "1.37"
+    resultFormat = "JSON"
+    resultsFile = layout.buildDirectory.file("results/jmh/results.json")
+    jvmArgsAppend.addAll(vectorApiArgs)
+    (findProperty("jmh.includes") as String?)?.let { includes.add(it) }
 }
@@ -0,0 +1,59 @@
+package com.back.global.vector;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * VectorMath 의 SIMD 구현(SimdKernels)과 스칼라 구현(ScalarKernels)을 같은 입력으로 비교한다.
+ * cosine 은 VectorMath.cosine 과 같은 방식(dot 세 번)으로 계산한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VectorMathBenchmark {
+
+    @Param({"384", "768", "1536"})
+    int dimension;
+
+    @Param({"simd", "scalar"})
+    String kernels;
+
+    VectorKernels impl;
+    float[] a;
+    float[] b;
+
+    @Setup
+    public void setUp() {
+        impl = kernels.equals("simd") ? new SimdKernels() : new ScalarKernels();
+
+        Random random = new Random(42);
+        a = new float[dimension];
+        b = new float[dimension];
+        for (int d = 0; d < dimension; d++) {
+            a[d] = random.nextFloat() * 2 - 1;
+            b[d] = random.nextFloat() * 2 - 1;
+        }
+    }
+
+    @Benchmark
+    public float dot() {
+        return impl.dot(a, b);
+    }
+
+    @Benchmark
+    public float cosine() {
+        float normA = impl.dot(a, a);
+        float normB = impl.dot(b, b);
+        return (float) (impl.dot(a, b) / Math.sqrt((double) normA * normB));
+    }
+
+    @Benchmark
+    public float l2() {
+        return (float) Math.sqrt(impl.squaredL2(a, b));
+    }
+}
@@ -0,0 +1,56 @@
+package com.back.product.entity;
+
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 엔티티 Product(임베딩 포함)의 JSON 직렬화. 조회/스트리밍 API 응답이 이 경로를 탄다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductJsonBenchmark {
+
+    @Param({"384", "1536"})
+    int dimension;
+
+    @Param({"1", "100"})
+    int batchSize;
+
+    ObjectMapper objectMapper;
+    List<Product> products;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JsonMapper.builder().build();
+
+        Random random = new Random(42);
+        products = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            Product product = new Product();
+            product.setName("상품 " + i);
+            product.addKeyword("laptop");
+            product.addKeyword("게이밍");
+            product.addKeyword("high-performance");
+
+            float[] embedding = new float[dimension];
+            for (int d = 0; d < dimension; d++) embedding[d] = random.nextFloat() * 2 - 1;
+            product.setEmbedding(embedding);
+            products.add(product);
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return objectMapper.writeValueAsBytes(products);
+    }
+}
@@ -0,0 +1,54 @@
+package com.back.product.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 키워드 임베딩 평균(ProductService.calculateAverage). scalarLoop 는 VectorMath 를 거치지 않은 기준값이다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VectorAverageBenchmark {
+
+    @Param({"384", "768", "1536"})
+    int dimension;
+
+    @Param({"1", "4", "16", "64"})
+    int batchSize;
+
+    List<float[]> vectors;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        vectors = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            float[] vector = new float[dimension];
+            for (int d = 0; d < dimension; d++) vector[d] = random.nextFloat() * 2 - 1;
+            vectors.add(vector);
+        }
+    }
+
+    @Benchmark
+    public float[] calculateAverage() {
+        return ProductService.calculateAverage(vectors);
+    }
+
+    @Benchmark
+    public float[] scalarLoop() {
+        float[] sum = new float[dimension];
+        for (float[] vector : vectors) {
+            for (int d = 0; d < dimension; d++) sum[d] += vector[d];
+        }
+        for (int d = 0; d < dimension; d++) sum[d] /= vectors.size();
+        return sum;
+    }
+}
@@ -0,0 +1,37 @@
+package com.back.product.tool;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * searchProducts 의 쉼표 구분 키워드 파싱.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeywordParsingBenchmark {
+
+    @Param({"3", "10", "50"})
+    int batchSize;
+
+    String keywords;
+
+    @Setup
+    public void setUp() {
+        keywords = IntStream.range(0, batchSize)
+                .mapToObj(i -> (i % 2 == 0 ? " 노트북" : "gaming ") + i)
+                .collect(Collectors.joining(", ")) + ", ,";
+    }
+
+    @Benchmark
+    public List<String> parseKeywords() {
+        return ProductSearchTool.parseKeywords(keywords);
+    }
+}
@@ -0,0 +1,57 @@
+package com.back.product.tool;
+
+import com.back.product.config.ProductChatProperties;
+import com.back.product.dto.ProductView;
+import com.back.product.tool.ProductSearchTool.ProductInfo;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 검색 결과(ProductView) → 도구 응답(ProductInfo) 변환과 토큰 예산 적용.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductInfoMappingBenchmark {
+
+    @Param({"5", "50", "500"})
+    int batchSize;
+
+    @Param({"3", "20"})
+    int keywordsPerProduct;
+
+    List<ProductView> views;
+    ToolOutputBudget budget;
+
+    @Setup
+    public void setUp() {
+        views = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            List<String> keywords = new ArrayList<>(keywordsPerProduct);
+            for (int k = 0; k < keywordsPerProduct; k++) keywords.add("키워드" + k);
+            views.add(new ProductView((long) i, "상품 " + i, List.copyOf(keywords), 0.1 * i));
+        }
+        budget = new ToolOutputBudget(new ProductChatProperties.Budget(0, 0, 0, 0));
+    }
+
+    @Benchmark
+    public List<ProductInfo> from() {
+        return views.stream()
+                .map(ProductInfo::from)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<ProductInfo> withBudget() {
+        return budget.fit(views.stream()
+                .map(budget::toInfo)
+                .collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,76 @@
+package com.back.embedding.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties("app.embedding")
+public record EmbeddingProperties(
+        String modelId,
+        int dimensions,
+        int maxBatchSize,
+        Cache cache,
+        Reembed reembed,
+        Coalesce coalesce
+) {
+    public EmbeddingProperties {
+        if (modelId == null || modelId.isBlank()) modelId = "default";
+        if (dimensions <= 0) dimensions = 384;
+        if (maxBatchSize <= 0) maxBatchSize = 512;
+        if (cache == null) cache = new Cache(0, null, true);
+        if (reembed == null) reembed = new Reembed(0, 0);
+        if (coalesce == null) coalesce = new Coalesce(false, null, 0);
+    }
+
+    /**
+     * EmbeddingModel 빈에 설정된 모델. 재임베딩으로 전환하기 전까지의 기본 버전이다.
+     */
+    public EmbeddingVersion version() {
+        return new EmbeddingVersion(modelId, dimensions);
+    }
+
+    /**
+     * 캐시 키에 사용하는 모델 식별자. 모델이나 차원이 바뀌면 이전 벡터와 섞이지 않는다.
+     */
+    public String modelKey() {
+        return version().key();
+    }
+
+    public record Cache(
+            int maxSize,
+            Duration ttl,
+            boolean persistent
+    ) {
+        public Cache {
+            if (maxSize <= 0) maxSize = 10_000;
+            if (ttl == null) ttl = Duration.ofHours(24);
+        }
+    }
+
+    /**
+     * 카탈로그 재임베딩 작업. batchSize 단위로 처리하며 초당 productsPerSecond 개를 넘지 않는다.
+     */
+    public record Reembed(
+            int batchSize,
+            double productsPerSecond
+    ) {
+        public Reembed {
+            if (batchSize <= 0) batchSize = 200;
+            if (productsPerSecond <= 0) productsPerSecond = 100;
+        }
+    }
+
+    /**
+     * 동시에 들어온 작은 임베딩 요청을 window 동안, 서로 다른 입력이 maxBatchSize 개가 될 때까지 모아 한 번에 호출한다.
+     */
+    public record Coalesce(
+            boolean enabled,
+            Duration window,
+            int maxBatchSize
+    ) {
+        public Coalesce {
+            if (window == null) window = Duration.ofMillis(5);
+            if (maxBatchSize <= 0) maxBatchSize = 64;
+        }
+    }
+}
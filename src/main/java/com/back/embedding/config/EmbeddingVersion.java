@@ -0,0 +1,21 @@
+package com.back.embedding.config;
+
+/**
+ * 벡터를 만든 임베딩 모델과 차원. 저장된 벡터마다 key() 를 함께 기록해 서로 다른 모델의 벡터가 섞이지 않게 한다.
+ */
+public record EmbeddingVersion(String modelId, int dimensions) {
+
+    public EmbeddingVersion {
+        if (modelId == null || modelId.isBlank()) throw new IllegalArgumentException("modelId is required");
+        if (dimensions <= 0) throw new IllegalArgumentException("dimensions must be positive");
+    }
+
+    public String key() {
+        return modelId + ":" + dimensions;
+    }
+
+    public static EmbeddingVersion parse(String key) {
+        int separator = key.lastIndexOf(':');
+        return new EmbeddingVersion(key.substring(0, separator), Integer.parseInt(key.substring(separator + 1)));
+    }
+}
@@ -0,0 +1,63 @@
+package com.back.embedding.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * 카탈로그 재임베딩 작업의 상태와 진행 위치(lastProductId). 재기동해도 그 다음부터 이어서 진행한다.
+ * 가장 최근에 CUT_OVER 된 작업의 targetModel 이 현재 검색에 쓰이는 임베딩 버전이다.
+ */
+@Entity
+@NoArgsConstructor
+public class EmbeddingMigration {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Getter
+    private Long id;
+
+    @Column(nullable = false)
+    @Getter
+    private String targetModel;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    @Getter
+    private Status status;
+
+    // 이 id 까지 처리했다
+    @Column(nullable = false)
+    @Getter
+    private long lastProductId;
+
+    @Column(nullable = false)
+    @Getter
+    private long processed;
+
+    @Column(nullable = false)
+    @Getter
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    @Getter
+    private Instant updatedAt;
+
+    public EmbeddingMigration(String targetModel) {
+        this.targetModel = targetModel;
+        this.status = Status.RUNNING;
+        this.createdAt = Instant.now();
+        this.updatedAt = createdAt;
+    }
+
+    public enum Status {
+        // 섀도 컬럼을 채우는 중
+        RUNNING,
+        // 섀도 컬럼과 인덱스가 준비되어 전환을 기다림
+        READY,
+        CUT_OVER,
+        CANCELLED,
+        FAILED
+    }
+}
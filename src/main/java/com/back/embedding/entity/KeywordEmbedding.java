@@ -0,0 +1,38 @@
+package com.back.embedding.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Array;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"model", "keyword"}))
+@NoArgsConstructor
+public class KeywordEmbedding {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Getter
+    private Long id;
+
+    @Column(nullable = false)
+    @Getter
+    private String model;
+
+    @Column(nullable = false)
+    @Getter
+    private String keyword;
+
+    @Column(name = "embedding")
+    @JdbcTypeCode(SqlTypes.VECTOR)
+    @Array(length = 384)
+    @Getter
+    private float[] embedding;
+
+    public KeywordEmbedding(String model, String keyword, float[] embedding) {
+        this.model = model;
+        this.keyword = keyword;
+        this.embedding = embedding;
+    }
+}
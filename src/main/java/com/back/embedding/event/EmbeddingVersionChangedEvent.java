@@ -0,0 +1,9 @@
+package com.back.embedding.event;
+
+import com.back.embedding.config.EmbeddingVersion;
+
+/**
+ * 검색에 쓰는 임베딩 버전이 바뀌었을 때(재임베딩 전환) 발행된다. 이전 버전 벡터로 만든 캐시나 인덱스는 버려야 한다.
+ */
+public record EmbeddingVersionChangedEvent(EmbeddingVersion previous, EmbeddingVersion current) {
+}
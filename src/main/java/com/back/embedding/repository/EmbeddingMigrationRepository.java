@@ -0,0 +1,33 @@
+package com.back.embedding.repository;
+
+import com.back.embedding.entity.EmbeddingMigration;
+import com.back.embedding.entity.EmbeddingMigration.Status;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Optional;
+
+public interface EmbeddingMigrationRepository extends CrudRepository<EmbeddingMigration, Long> {
+    Optional<EmbeddingMigration> findFirstByOrderByIdDesc();
+
+    Optional<EmbeddingMigration> findFirstByStatusOrderByIdDesc(Status status);
+
+    Optional<EmbeddingMigration> findFirstByStatusInOrderByIdDesc(Collection<Status> statuses);
+
+    @Transactional
+    @Modifying
+    @Query("update EmbeddingMigration m set m.lastProductId = :lastProductId, m.processed = m.processed + :processed, m.updatedAt = :now where m.id = :id")
+    void advance(Long id, long lastProductId, long processed, Instant now);
+
+    /**
+     * 상태가 from 중 하나일 때만 to 로 바꾼다. 동시에 취소/전환되었다면 0 을 반환한다.
+     */
+    @Transactional
+    @Modifying
+    @Query("update EmbeddingMigration m set m.status = :to, m.updatedAt = :now where m.id = :id and m.status in :from")
+    int transition(Long id, Collection<Status> from, Status to, Instant now);
+}
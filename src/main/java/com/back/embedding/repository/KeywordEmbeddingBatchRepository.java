@@ -0,0 +1,53 @@
+package com.back.embedding.repository;
+
+import com.back.embedding.entity.KeywordEmbedding;
+import com.back.global.jdbc.PgVectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * keyword_embedding 일괄 저장용 JDBC 쿼리.
+ */
+@Repository
+@RequiredArgsConstructor
+public class KeywordEmbeddingBatchRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 이미 저장된 (model, keyword) 는 행마다 건너뛴다. 다른 요청이 일부 키워드를 먼저 저장했어도 나머지는 저장된다.
+     * 동시에 겹치는 키워드를 저장하는 트랜잭션끼리 교착되지 않도록 키워드 순으로 넣는다.
+     *
+     * @return 새로 저장된 행 수
+     */
+    public int insertIgnoringConflicts(List<KeywordEmbedding> embeddings) {
+        if (embeddings.isEmpty()) return 0;
+
+        List<KeywordEmbedding> sorted = embeddings.stream()
+                .sorted(Comparator.comparing(KeywordEmbedding::getModel).thenComparing(KeywordEmbedding::getKeyword))
+                .toList();
+        int[][] counts = jdbcTemplate.batchUpdate("""
+                        insert into keyword_embedding (model, keyword, embedding)
+                        values (?, ?, ?::vector)
+                        on conflict (model, keyword) do nothing
+                        """,
+                sorted,
+                sorted.size(),
+                (ps, embedding) -> {
+                    ps.setString(1, embedding.getModel());
+                    ps.setString(2, embedding.getKeyword());
+                    ps.setString(3, PgVectors.toLiteral(embedding.getEmbedding()));
+                });
+
+        int inserted = 0;
+        for (int count : counts[0]) {
+            // 드라이버가 행 수를 알려주지 않는 경우(SUCCESS_NO_INFO = -2)는 세지 않는다
+            if (count > 0) inserted += count;
+        }
+        return inserted;
+    }
+}
@@ -0,0 +1,11 @@
+package com.back.embedding.repository;
+
+import com.back.embedding.entity.KeywordEmbedding;
+import org.springframework.data.repository.CrudRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface KeywordEmbeddingRepository extends CrudRepository<KeywordEmbedding, Long> {
+    List<KeywordEmbedding> findByModelAndKeywordIn(String model, Collection<String> keywords);
+}
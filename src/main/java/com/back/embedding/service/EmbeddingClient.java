@@ -0,0 +1,88 @@
+package com.back.embedding.service;
+
+import com.back.embedding.config.EmbeddingProperties;
+import com.back.embedding.config.EmbeddingVersion;
+import com.back.global.bulkhead.Bulkhead;
+import com.back.global.bulkhead.BulkheadConfig;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingOptions;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 임베딩 모델 호출 창구. 모든 호출은 임베딩 격벽을 거친다.
+ * 작은 요청은 EmbeddingCoalescer 로 다른 요청과 합쳐 호출하고, 이미 큰 요청(대량 적재, 재임베딩)은 바로 호출한다.
+ */
+@Component
+public class EmbeddingClient {
+
+    private final EmbeddingModel embeddingModel;
+    private final EmbeddingVersions versions;
+    private final Bulkhead bulkhead;
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary batchSize;
+    private final EmbeddingCoalescer coalescer;
+    private final int coalesceMaxBatchSize;
+
+    public EmbeddingClient(EmbeddingModel embeddingModel,
+                           EmbeddingVersions versions,
+                           @Qualifier(BulkheadConfig.EMBEDDING) Bulkhead bulkhead,
+                           EmbeddingProperties properties,
+                           MeterRegistry meterRegistry) {
+        this.embeddingModel = embeddingModel;
+        this.versions = versions;
+        this.bulkhead = bulkhead;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = DistributionSummary.builder("embedding.model.batch.size")
+                .description("임베딩 모델 호출당 입력 수")
+                .register(meterRegistry);
+
+        EmbeddingProperties.Coalesce coalesce = properties.coalesce();
+        // 모델 제공자의 요청당 입력 개수 제한을 넘지 않게 한다
+        this.coalesceMaxBatchSize = Math.min(coalesce.maxBatchSize(), properties.maxBatchSize());
+        this.coalescer = coalesce.enabled()
+                ? new EmbeddingCoalescer(this::call, coalesce.window(), coalesceMaxBatchSize)
+                : null;
+    }
+
+    public List<float[]> embed(List<String> texts, EmbeddingVersion version) {
+        if (coalescer == null || texts.size() >= coalesceMaxBatchSize) return call(texts, version);
+        return coalescer.embed(texts, version);
+    }
+
+    /**
+     * 한 번의 모델 호출. 합쳐진 배치라면 batch.size 와 latency 는 배치 전체 기준으로 기록된다.
+     */
+    private List<float[]> call(List<String> texts, EmbeddingVersion version) {
+        return bulkhead.call(() -> {
+            batchSize.record(texts.size());
+            return Timer.builder("embedding.model.latency")
+                    .description("임베딩 모델 호출 시간 (격벽 대기 제외)")
+                    .tag("model", version.key())
+                    .register(meterRegistry)
+                    .record(() -> callModel(texts, version));
+        });
+    }
+
+    /**
+     * 빈에 설정된 모델이 아니면 요청 옵션으로 모델과 차원을 지정한다.
+     */
+    private List<float[]> callModel(List<String> texts, EmbeddingVersion version) {
+        if (versions.isConfigured(version)) return embeddingModel.embed(texts);
+
+        EmbeddingOptions options = EmbeddingOptions.builder()
+                .model(version.modelId())
+                .dimensions(version.dimensions())
+                .build();
+        return embeddingModel.call(new EmbeddingRequest(texts, options)).getResults().stream()
+                .map(Embedding::getOutput)
+                .toList();
+    }
+}
@@ -0,0 +1,132 @@
+package com.back.embedding.service;
+
+import com.back.embedding.config.EmbeddingVersion;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * 동시에 들어온 작은 임베딩 요청을 모아 한 번의 모델 호출로 합친다(micro-batching).
+ * <p>
+ * 열린 배치가 없을 때 온 요청이 리더가 되어 window 동안(또는 서로 다른 입력이 maxBatchSize 개 찰 때까지) 기다린 뒤
+ * 모은 입력을 중복 제거해 한 번에 호출한다. 그 사이에 온 요청은 배치에 입력만 더하고 결과를 기다린다.
+ * 배치는 임베딩 버전별로 따로 모으며, 호출이 실패하면 배치의 모든 요청이 같은 예외를 받는다.
+ */
+class EmbeddingCoalescer {
+
+    private final BiFunction<List<String>, EmbeddingVersion, List<float[]>> model;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Map<EmbeddingVersion, Batch> open = new HashMap<>();
+
+    EmbeddingCoalescer(BiFunction<List<String>, EmbeddingVersion, List<float[]>> model, Duration window, int maxBatchSize) {
+        this.model = model;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * 서로 다른 입력이 maxBatchSize 개 이상인 요청은 합칠 이득이 없으므로 호출하는 쪽에서 바로 보내야 한다.
+     */
+    List<float[]> embed(List<String> texts, EmbeddingVersion version) {
+        Batch batch;
+        int[] slots;
+        boolean leader = false;
+
+        synchronized (this) {
+            batch = open.get(version);
+            if (batch != null && !batch.fits(texts, maxBatchSize)) {
+                close(version, batch);
+                batch = null;
+            }
+            if (batch == null) {
+                batch = new Batch();
+                open.put(version, batch);
+                leader = true;
+            }
+            slots = batch.add(texts);
+            if (batch.size() >= maxBatchSize) {
+                close(version, batch);
+            }
+        }
+
+        if (leader) {
+            awaitWindow(batch);
+            synchronized (this) {
+                open.remove(version, batch);
+            }
+            run(batch, version);
+        }
+
+        List<float[]> results = await(batch.result);
+        List<float[]> embeddings = new ArrayList<>(slots.length);
+        for (int slot : slots) {
+            embeddings.add(results.get(slot));
+        }
+        return embeddings;
+    }
+
+    // 배치를 더 받지 않게 하고, 기다리는 리더를 깨운다
+    private void close(EmbeddingVersion version, Batch batch) {
+        open.remove(version, batch);
+        batch.closed.countDown();
+    }
+
+    private void awaitWindow(Batch batch) {
+        try {
+            batch.closed.await(windowNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            // 기다리는 요청이 있으므로 배치는 바로 보낸다
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run(Batch batch, EmbeddingVersion version) {
+        try {
+            batch.result.complete(model.apply(List.copyOf(batch.texts.keySet()), version));
+        } catch (RuntimeException e) {
+            batch.result.completeExceptionally(e);
+        }
+    }
+
+    private static List<float[]> await(CompletableFuture<List<float[]>> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    private static final class Batch {
+        // 입력 → 모델 호출 목록에서의 위치. 여러 요청이 같은 입력을 보내도 한 번만 호출한다
+        final LinkedHashMap<String, Integer> texts = new LinkedHashMap<>();
+        final CountDownLatch closed = new CountDownLatch(1);
+        final CompletableFuture<List<float[]>> result = new CompletableFuture<>();
+
+        boolean fits(List<String> more, int maxBatchSize) {
+            int added = 0;
+            for (String text : new HashSet<>(more)) {
+                if (!texts.containsKey(text)) added++;
+            }
+            return texts.size() + added <= maxBatchSize;
+        }
+
+        int[] add(List<String> more) {
+            int[] slots = new int[more.size()];
+            for (int i = 0; i < more.size(); i++) {
+                slots[i] = texts.computeIfAbsent(more.get(i), text -> texts.size());
+            }
+            return slots;
+        }
+
+        int size() {
+            return texts.size();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.back.embedding.service;
+
+import com.back.embedding.config.EmbeddingProperties;
+import com.back.embedding.config.EmbeddingVersion;
+import com.back.embedding.entity.EmbeddingMigration;
+import com.back.embedding.event.EmbeddingVersionChangedEvent;
+import com.back.embedding.repository.EmbeddingMigrationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 현재 검색/저장에 쓰는 임베딩 버전.
+ * 재임베딩을 전환한 적이 있으면 그 버전이, 없으면 설정(app.embedding.model-id / dimensions)이 기본값이다.
+ * <p>
+ * 전환은 한 인스턴스에서 일어나므로, 다른 인스턴스는 embedding_migration 을 주기적으로(app.embedding.version-refresh-interval)
+ * 다시 읽어 따라간다. 버전이 바뀌면 어느 쪽이든 EmbeddingVersionChangedEvent 를 한 번 발행한다.
+ */
+@Slf4j
+@Component
+public class EmbeddingVersions {
+
+    private final EmbeddingProperties properties;
+    private final EmbeddingMigrationRepository migrationRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private volatile EmbeddingVersion active;
+
+    public EmbeddingVersions(EmbeddingProperties properties,
+                             EmbeddingMigrationRepository migrationRepository,
+                             ApplicationEventPublisher eventPublisher) {
+        this.properties = properties;
+        this.migrationRepository = migrationRepository;
+        this.eventPublisher = eventPublisher;
+        this.active = lastCutOver();
+
+        if (!active.equals(properties.version())) {
+            log.info("Using embedding version {} from the last cutover (configured: {})", active.key(), properties.modelKey());
+        }
+    }
+
+    public EmbeddingVersion active() {
+        return active;
+    }
+
+    /**
+     * EmbeddingModel 빈에 설정된 기본 모델인지. 아니면 요청마다 모델 옵션을 넘겨야 한다.
+     */
+    public boolean isConfigured(EmbeddingVersion version) {
+        return version.equals(properties.version());
+    }
+
+    /**
+     * 전환을 실행한 인스턴스가 호출한다. 이미 같은 버전이면(주기적 갱신이 먼저 반영) 이벤트를 다시 발행하지 않는다.
+     */
+    public void activate(EmbeddingVersion version) {
+        EmbeddingVersion previous;
+        synchronized (this) {
+            previous = active;
+            if (previous.equals(version)) return;
+            active = version;
+        }
+        log.info("Embedding version switched from {} to {}", previous.key(), version.key());
+        eventPublisher.publishEvent(new EmbeddingVersionChangedEvent(previous, version));
+    }
+
+    /**
+     * 다른 인스턴스에서 전환한 버전을 반영한다.
+     */
+    @Scheduled(fixedDelayString = "${app.embedding.version-refresh-interval:10s}",
+            initialDelayString = "${app.embedding.version-refresh-interval:10s}")
+    public void refresh() {
+        activate(lastCutOver());
+    }
+
+    private EmbeddingVersion lastCutOver() {
+        return migrationRepository.findFirstByStatusOrderByIdDesc(EmbeddingMigration.Status.CUT_OVER)
+                .map(migration -> EmbeddingVersion.parse(migration.getTargetModel()))
+                .orElse(properties.version());
+    }
+}
@@ -0,0 +1,164 @@
+package com.back.embedding.service;
+
+import com.back.embedding.config.EmbeddingProperties;
+import com.back.embedding.config.EmbeddingVersion;
+import com.back.embedding.entity.KeywordEmbedding;
+import com.back.embedding.repository.KeywordEmbeddingBatchRepository;
+import com.back.embedding.repository.KeywordEmbeddingRepository;
+import com.back.global.cache.LruCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 키워드 → 임베딩 벡터 캐시.
+ * 1차: 인메모리 LRU/TTL, 2차: Postgres(keyword_embedding 테이블). 두 곳 모두 없는 키워드만 모델을 호출한다.
+ * 캐시는 임베딩 버전(모델:차원)별로 나뉜다.
+ * 반환되는 배열은 캐시와 공유되므로 호출하는 쪽에서 수정하면 안 된다.
+ */
+@Service
+public class KeywordEmbeddingService {
+
+    private final EmbeddingClient embeddingClient;
+    private final KeywordEmbeddingRepository keywordEmbeddingRepository;
+    private final KeywordEmbeddingBatchRepository keywordEmbeddingBatchRepository;
+    private final EmbeddingProperties properties;
+    private final EmbeddingVersions versions;
+    private final TransactionTemplate requiresNewTransaction;
+    private final LruCache<String, float[]> memoryCache;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong persistentHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public KeywordEmbeddingService(EmbeddingClient embeddingClient,
+                                   KeywordEmbeddingRepository keywordEmbeddingRepository,
+                                   KeywordEmbeddingBatchRepository keywordEmbeddingBatchRepository,
+                                   EmbeddingProperties properties,
+                                   EmbeddingVersions versions,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry) {
+        this.embeddingClient = embeddingClient;
+        this.keywordEmbeddingRepository = keywordEmbeddingRepository;
+        this.keywordEmbeddingBatchRepository = keywordEmbeddingBatchRepository;
+        this.properties = properties;
+        this.versions = versions;
+        this.requiresNewTransaction = new TransactionTemplate(transactionManager);
+        this.requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.memoryCache = new LruCache<>(properties.cache().maxSize(), properties.cache().ttl());
+
+        bindCacheCounter(meterRegistry, "memory", memoryHits);
+        bindCacheCounter(meterRegistry, "persistent", persistentHits);
+        bindCacheCounter(meterRegistry, "miss", misses);
+        Gauge.builder("embedding.cache.size", memoryCache, LruCache::size)
+                .description("인메모리 키워드 임베딩 캐시 항목 수")
+                .register(meterRegistry);
+    }
+
+    private static void bindCacheCounter(MeterRegistry meterRegistry, String result, AtomicLong value) {
+        FunctionCounter.builder("embedding.cache.lookups", value, AtomicLong::get)
+                .description("키워드 임베딩 조회 결과별 키워드 수 (memory / persistent 적중, miss 는 모델 호출)")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 키워드마다 하나의 벡터를 입력 순서대로 반환한다. 현재 활성 버전의 모델을 사용한다.
+     */
+    public List<float[]> embed(List<String> keywords) {
+        return embed(keywords, versions.active());
+    }
+
+    public List<float[]> embed(List<String> keywords, EmbeddingVersion version) {
+        List<String> normalized = keywords.stream()
+                .map(KeywordEmbeddingService::normalize)
+                .toList();
+
+        String modelKey = version.key();
+        Map<String, float[]> resolved = new HashMap<>();
+        List<String> pending = new ArrayList<>();
+
+        // 1. 인메모리
+        for (String keyword : new LinkedHashSet<>(normalized)) {
+            float[] cached = memoryCache.get(modelKey + "|" + keyword);
+            if (cached != null) {
+                resolved.put(keyword, cached);
+            } else {
+                pending.add(keyword);
+            }
+        }
+        memoryHits.addAndGet(resolved.size());
+
+        // 2. Postgres
+        if (!pending.isEmpty() && properties.cache().persistent()) {
+            for (KeywordEmbedding stored : keywordEmbeddingRepository.findByModelAndKeywordIn(modelKey, pending)) {
+                resolved.put(stored.getKeyword(), stored.getEmbedding());
+                memoryCache.put(modelKey + "|" + stored.getKeyword(), stored.getEmbedding());
+                persistentHits.incrementAndGet();
+            }
+            pending.removeIf(resolved::containsKey);
+        }
+
+        // 3. 처음 보는 키워드만 모델 호출
+        if (!pending.isEmpty()) {
+            misses.addAndGet(pending.size());
+            List<float[]> embeddings = embedInBatches(pending, version);
+
+            List<KeywordEmbedding> toStore = new ArrayList<>(pending.size());
+            for (int i = 0; i < pending.size(); i++) {
+                String keyword = pending.get(i);
+                float[] embedding = embeddings.get(i);
+                resolved.put(keyword, embedding);
+                memoryCache.put(modelKey + "|" + keyword, embedding);
+                toStore.add(new KeywordEmbedding(modelKey, keyword, embedding));
+            }
+
+            if (properties.cache().persistent()) {
+                store(toStore);
+            }
+        }
+
+        return normalized.stream()
+                .map(resolved::get)
+                .toList();
+    }
+
+    /**
+     * 모델 제공자의 요청당 입력 개수 제한을 넘지 않도록 maxBatchSize 단위로 나눠 호출한다.
+     */
+    private List<float[]> embedInBatches(List<String> texts, EmbeddingVersion version) {
+        int batchSize = properties.maxBatchSize();
+        if (texts.size() <= batchSize) return embeddingClient.embed(texts, version);
+
+        List<float[]> embeddings = new ArrayList<>(texts.size());
+        for (int from = 0; from < texts.size(); from += batchSize) {
+            embeddings.addAll(embeddingClient.embed(texts.subList(from, Math.min(from + batchSize, texts.size())), version));
+        }
+        return embeddings;
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(memoryHits.get(), persistentHits.get(), misses.get(), memoryCache.size());
+    }
+
+    public static String normalize(String keyword) {
+        return keyword.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 호출한 쪽 트랜잭션이 롤백되더라도 임베딩은 재사용할 수 있도록 별도 트랜잭션으로 저장한다.
+     * 다른 요청이 먼저 저장한 키워드는 그 행만 건너뛴다(인메모리에는 이미 들어가 있다).
+     */
+    private void store(List<KeywordEmbedding> embeddings) {
+        requiresNewTransaction.executeWithoutResult(status -> keywordEmbeddingBatchRepository.insertIgnoringConflicts(embeddings));
+    }
+
+    public record CacheStats(long memoryHits, long persistentHits, long misses, int memorySize) {}
+}
@@ -0,0 +1,92 @@
+package com.back.global.bulkhead;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 외부 호출(임베딩 모델, LLM)의 동시 실행 수를 제한하는 세마포어 격벽.
+ * 허가를 maxWait 안에 얻지 못하면 대기열에 쌓지 않고 BulkheadFullException 으로 바로 거절한다.
+ * 가상 스레드에서는 스레드 수가 더 이상 자연스러운 상한이 아니므로, DB 커넥션과 모델 호출 한도는 여기서 지킨다.
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final Duration maxWait;
+    private final Semaphore semaphore;
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    public Bulkhead(String name, int maxConcurrent, Duration maxWait) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWait = maxWait;
+        this.semaphore = new Semaphore(maxConcurrent, true);
+    }
+
+    public <T> T call(Supplier<T> supplier) {
+        try (Permit ignored = acquire()) {
+            return supplier.get();
+        }
+    }
+
+    /**
+     * 스트리밍처럼 호출이 끝나는 시점을 따로 알려야 할 때 사용한다. close 는 여러 번 불러도 한 번만 반납한다.
+     */
+    public Permit acquire() {
+        boolean acquired;
+        try {
+            acquired = maxWait.isZero()
+                    ? semaphore.tryAcquire()
+                    : semaphore.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BulkheadFullException(name, maxWait);
+        }
+
+        if (!acquired) {
+            rejected.incrementAndGet();
+            throw new BulkheadFullException(name, maxWait);
+        }
+        return new Permit();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int maxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int availablePermits() {
+        return semaphore.availablePermits();
+    }
+
+    public int queueLength() {
+        return semaphore.getQueueLength();
+    }
+
+    public long rejectedCount() {
+        return rejected.get();
+    }
+
+    public final class Permit implements AutoCloseable {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit() {
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                semaphore.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.back.global.bulkhead;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class BulkheadConfig {
+
+    public static final String EMBEDDING = "embeddingBulkhead";
+    public static final String CHAT = "chatBulkhead";
+
+    @Bean(EMBEDDING)
+    public Bulkhead embeddingBulkhead(BulkheadProperties properties, MeterRegistry meterRegistry) {
+        return bind(new Bulkhead("embedding", properties.embedding().maxConcurrent(), properties.embedding().maxWait()), meterRegistry);
+    }
+
+    @Bean(CHAT)
+    public Bulkhead chatBulkhead(BulkheadProperties properties, MeterRegistry meterRegistry) {
+        return bind(new Bulkhead("chat", properties.chat().maxConcurrent(), properties.chat().maxWait()), meterRegistry);
+    }
+
+    public static Bulkhead bind(Bulkhead bulkhead, MeterRegistry meterRegistry) {
+        Gauge.builder("bulkhead.available", bulkhead, Bulkhead::availablePermits)
+                .description("남은 허가 수")
+                .tag("name", bulkhead.name())
+                .register(meterRegistry);
+        Gauge.builder("bulkhead.queued", bulkhead, Bulkhead::queueLength)
+                .description("허가를 기다리는 호출 수")
+                .tag("name", bulkhead.name())
+                .register(meterRegistry);
+        FunctionCounter.builder("bulkhead.rejected", bulkhead, Bulkhead::rejectedCount)
+                .description("허가를 얻지 못해 거절된 호출 수")
+                .tag("name", bulkhead.name())
+                .register(meterRegistry);
+        return bulkhead;
+    }
+}
@@ -0,0 +1,17 @@
+package com.back.global.bulkhead;
+
+import java.time.Duration;
+
+public class BulkheadFullException extends RuntimeException {
+
+    private final String bulkhead;
+
+    public BulkheadFullException(String bulkhead, Duration maxWait) {
+        super("Bulkhead '" + bulkhead + "' is full (waited " + maxWait.toMillis() + "ms)");
+        this.bulkhead = bulkhead;
+    }
+
+    public String getBulkhead() {
+        return bulkhead;
+    }
+}
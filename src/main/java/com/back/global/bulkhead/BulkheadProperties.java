@@ -0,0 +1,27 @@
+package com.back.global.bulkhead;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 외부 호출 격벽 설정. maxConcurrent 는 동시에 진행할 수 있는 호출 수, maxWait 는 허가를 기다리는 최대 시간이다.
+ * 임베딩 격벽은 DB 커넥션 풀(기본 10)보다 크게 잡지 않는 편이 좋다. 저장 전 임베딩이 끝난 요청만 커넥션을 쓰게 된다.
+ */
+@ConfigurationProperties("app.bulkhead")
+public record BulkheadProperties(
+        Limit embedding,
+        Limit chat
+) {
+    public BulkheadProperties {
+        if (embedding == null) embedding = new Limit(8, Duration.ofMillis(500));
+        if (chat == null) chat = new Limit(4, Duration.ofSeconds(1));
+    }
+
+    public record Limit(int maxConcurrent, Duration maxWait) {
+        public Limit {
+            if (maxConcurrent <= 0) maxConcurrent = 1;
+            if (maxWait == null || maxWait.isNegative()) maxWait = Duration.ZERO;
+        }
+    }
+}
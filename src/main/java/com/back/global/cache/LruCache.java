@@ -0,0 +1,74 @@
+package com.back.global.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 크기 제한(LRU)과 만료 시간(TTL)을 가진 단순한 인메모리 캐시.
+ * ttl 이 null 이거나 0 이면 만료 없이 LRU 로만 동작한다.
+ */
+public class LruCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    public LruCache(int maxSize, Duration ttl) {
+        if (maxSize <= 0) throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+
+        this.maxSize = maxSize;
+        this.ttlNanos = (ttl == null || ttl.isZero() || ttl.isNegative()) ? 0L : ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > LruCache.this.maxSize;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) return null;
+
+        if (entry.isExpired(System.nanoTime())) {
+            entries.remove(key);
+            return null;
+        }
+
+        return entry.value();
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, ttlNanos == 0L ? 0L : System.nanoTime() + ttlNanos));
+    }
+
+    /**
+     * 만료되지 않은 값의 스냅샷. 접근 순서(LRU)는 바꾸지 않고, 만료된 항목은 이때 정리한다.
+     */
+    public synchronized List<V> values() {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+        return entries.values().stream().map(Entry::value).toList();
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // expiresAt 이 0 이면 만료되지 않는 항목
+    private record Entry<V>(V value, long expiresAt) {
+        boolean isExpired(long now) {
+            return expiresAt != 0L && now - expiresAt > 0;
+        }
+    }
+}
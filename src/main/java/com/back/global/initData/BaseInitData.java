@@ -1,12 +1,15 @@
 package com.back.global.initData;
 
+import com.back.product.config.ProductSnapshotProperties;
 import com.back.product.service.ProductService;
+import com.back.product.service.ProductSnapshotService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 
+import java.io.InputStream;
 import java.util.List;
 
 @Configuration
@@ -15,11 +18,24 @@ public class BaseInitData {
 
     private final ProductService productService;
 
+    private final ProductSnapshotService productSnapshotService;
+
+    private final ProductSnapshotProperties snapshotProperties;
+
     @Bean
     @Profile("!test")
     public ApplicationRunner initDataRunner() {
         return args -> {
-            if (!productService.findAll().isEmpty()) {
+            if (productService.count() > 0) {
+                return;
+            }
+
+            // 스냅샷이 있으면 임베딩 모델을 호출하지 않고 COPY 로 한 번에 채운다
+            if (snapshotProperties.seed() != null && snapshotProperties.seed().exists()) {
+                try (InputStream in = snapshotProperties.seed().getInputStream()) {
+                    var summary = productSnapshotService.importFrom(in);
+                    System.out.println("=== Initial data imported from snapshot: " + summary.imported() + " products ===");
+                }
                 return;
             }
 
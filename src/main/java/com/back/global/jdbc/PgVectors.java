@@ -0,0 +1,32 @@
+package com.back.global.jdbc;
+
+/**
+ * pgvector 텍스트 표현('[0.1,0.2,...]') 변환 유틸. JDBC 파라미터로 넘긴 뒤 SQL 에서 ?::vector 로 캐스팅한다.
+ */
+public final class PgVectors {
+
+    private PgVectors() {
+    }
+
+    public static String toLiteral(float[] vector) {
+        StringBuilder sb = new StringBuilder(vector.length * 12 + 2);
+        sb.append('[');
+        for (int i = 0; i < vector.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(vector[i]);
+        }
+        return sb.append(']').toString();
+    }
+
+    public static float[] parse(String literal) {
+        String body = literal.substring(1, literal.length() - 1);
+        if (body.isEmpty()) return new float[0];
+
+        String[] parts = body.split(",");
+        float[] vector = new float[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            vector[i] = Float.parseFloat(parts[i]);
+        }
+        return vector;
+    }
+}
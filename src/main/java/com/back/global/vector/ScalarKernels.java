@@ -0,0 +1,40 @@
+package com.back.global.vector;
+
+/**
+ * jdk.incubator.vector 를 쓸 수 없을 때의 구현.
+ */
+final class ScalarKernels implements VectorKernels {
+
+    @Override
+    public float dot(float[] a, float[] b) {
+        float sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public float squaredL2(float[] a, float[] b) {
+        float sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            float d = a[i] - b[i];
+            sum += d * d;
+        }
+        return sum;
+    }
+
+    @Override
+    public void add(float[] target, float[] source) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] += source[i];
+        }
+    }
+
+    @Override
+    public void scale(float[] target, float factor) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] *= factor;
+        }
+    }
+}
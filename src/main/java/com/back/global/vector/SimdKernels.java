@@ -0,0 +1,76 @@
+package com.back.global.vector;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API 구현. 플랫폼이 지원하는 가장 넓은 레인으로 처리하고 남는 꼬리는 스칼라로 계산한다.
+ * jdk.incubator.vector 모듈이 있을 때만 로드된다(VectorMath 참고).
+ */
+final class SimdKernels implements VectorKernels {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    @Override
+    public float dot(float[] a, float[] b) {
+        FloatVector acc = FloatVector.zero(SPECIES);
+        int i = 0;
+        int bound = SPECIES.loopBound(a.length);
+        for (; i < bound; i += SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, i);
+            FloatVector vb = FloatVector.fromArray(SPECIES, b, i);
+            acc = va.fma(vb, acc);
+        }
+        float sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public float squaredL2(float[] a, float[] b) {
+        FloatVector acc = FloatVector.zero(SPECIES);
+        int i = 0;
+        int bound = SPECIES.loopBound(a.length);
+        for (; i < bound; i += SPECIES.length()) {
+            FloatVector d = FloatVector.fromArray(SPECIES, a, i).sub(FloatVector.fromArray(SPECIES, b, i));
+            acc = d.fma(d, acc);
+        }
+        float sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < a.length; i++) {
+            float d = a[i] - b[i];
+            sum += d * d;
+        }
+        return sum;
+    }
+
+    @Override
+    public void add(float[] target, float[] source) {
+        int i = 0;
+        int bound = SPECIES.loopBound(target.length);
+        for (; i < bound; i += SPECIES.length()) {
+            FloatVector.fromArray(SPECIES, target, i)
+                    .add(FloatVector.fromArray(SPECIES, source, i))
+                    .intoArray(target, i);
+        }
+        for (; i < target.length; i++) {
+            target[i] += source[i];
+        }
+    }
+
+    @Override
+    public void scale(float[] target, float factor) {
+        int i = 0;
+        int bound = SPECIES.loopBound(target.length);
+        for (; i < bound; i += SPECIES.length()) {
+            FloatVector.fromArray(SPECIES, target, i)
+                    .mul(factor)
+                    .intoArray(target, i);
+        }
+        for (; i < target.length; i++) {
+            target[i] *= factor;
+        }
+    }
+}
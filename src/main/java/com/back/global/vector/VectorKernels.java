@@ -0,0 +1,18 @@
+package com.back.global.vector;
+
+/**
+ * VectorMath 의 실제 연산. SIMD(jdk.incubator.vector) 구현과 스칼라 구현이 있다.
+ * 모든 메서드는 길이가 같은 배열을 받고 새 배열을 만들지 않는다.
+ */
+interface VectorKernels {
+
+    float dot(float[] a, float[] b);
+
+    float squaredL2(float[] a, float[] b);
+
+    // target += source
+    void add(float[] target, float[] source);
+
+    // target *= factor
+    void scale(float[] target, float factor);
+}
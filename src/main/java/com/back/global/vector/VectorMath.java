@@ -0,0 +1,121 @@
+package com.back.global.vector;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 임베딩 벡터 연산. jdk.incubator.vector 모듈이 로드되어 있으면(--add-modules jdk.incubator.vector) SIMD 로,
+ * 아니면 스칼라 루프로 계산한다. 결과는 두 구현이 부동소수점 누적 순서 차이만큼만 다르다.
+ * <p>
+ * ...Into / ...InPlace 메서드는 새 배열을 만들지 않으므로 반복 호출되는 경로에서 사용한다.
+ */
+@Slf4j
+public final class VectorMath {
+
+    private static final VectorKernels KERNELS = loadKernels();
+
+    private VectorMath() {
+    }
+
+    public static boolean simdEnabled() {
+        return KERNELS instanceof SimdKernels;
+    }
+
+    public static float dot(float[] a, float[] b) {
+        checkLength(a, b);
+        return KERNELS.dot(a, b);
+    }
+
+    public static float squaredL2(float[] a, float[] b) {
+        checkLength(a, b);
+        return KERNELS.squaredL2(a, b);
+    }
+
+    public static float l2(float[] a, float[] b) {
+        return (float) Math.sqrt(squaredL2(a, b));
+    }
+
+    public static float norm(float[] v) {
+        return (float) Math.sqrt(KERNELS.dot(v, v));
+    }
+
+    /**
+     * 코사인 유사도. 한쪽이 영벡터면 0.
+     */
+    public static float cosine(float[] a, float[] b) {
+        checkLength(a, b);
+        float normA = KERNELS.dot(a, a);
+        float normB = KERNELS.dot(b, b);
+        if (normA == 0 || normB == 0) return 0;
+        return (float) (KERNELS.dot(a, b) / Math.sqrt((double) normA * normB));
+    }
+
+    public static void addInPlace(float[] target, float[] source) {
+        checkLength(target, source);
+        KERNELS.add(target, source);
+    }
+
+    public static void scaleInPlace(float[] target, float factor) {
+        KERNELS.scale(target, factor);
+    }
+
+    /**
+     * 길이를 1 로 맞춘다. 영벡터는 그대로 둔다.
+     */
+    public static void normalizeInPlace(float[] v) {
+        float norm = norm(v);
+        if (norm > 0) KERNELS.scale(v, 1 / norm);
+    }
+
+    public static float[] normalize(float[] v) {
+        float[] copy = v.clone();
+        normalizeInPlace(copy);
+        return copy;
+    }
+
+    /**
+     * 평균 풀링. 벡터가 없으면 빈 배열.
+     */
+    public static float[] mean(List<float[]> vectors) {
+        if (vectors.isEmpty()) return new float[0];
+
+        float[] out = new float[vectors.getFirst().length];
+        meanInto(vectors, out);
+        return out;
+    }
+
+    /**
+     * 평균을 out 에 쓴다. out 의 기존 값은 버린다.
+     */
+    public static void meanInto(List<float[]> vectors, float[] out) {
+        Arrays.fill(out, 0);
+        if (vectors.isEmpty()) return;
+
+        for (float[] vector : vectors) {
+            checkLength(out, vector);
+            KERNELS.add(out, vector);
+        }
+        KERNELS.scale(out, 1f / vectors.size());
+    }
+
+    private static void checkLength(float[] a, float[] b) {
+        if (a.length != b.length) {
+            throw new IllegalArgumentException("Vector length mismatch: " + a.length + " != " + b.length);
+        }
+    }
+
+    private static VectorKernels loadKernels() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return new SimdKernels();
+            } catch (LinkageError e) {
+                log.warn("Vector API unavailable, falling back to scalar kernels", e);
+            }
+        } else {
+            log.info("jdk.incubator.vector is not loaded; using scalar kernels. Start the JVM with --add-modules jdk.incubator.vector to enable SIMD");
+        }
+        return new ScalarKernels();
+    }
+}
@@ -0,0 +1,15 @@
+package com.back.product.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 대량 적재 설정. chunkSize 개 단위로 임베딩 → COPY → 커밋한다.
+ */
+@ConfigurationProperties("app.product.bulk")
+public record ProductBulkProperties(
+        int chunkSize
+) {
+    public ProductBulkProperties {
+        if (chunkSize <= 0) chunkSize = 1_000;
+    }
+}
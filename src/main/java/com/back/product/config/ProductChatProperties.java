@@ -0,0 +1,129 @@
+package com.back.product.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 상품 추천 채팅 설정.
+ */
+@ConfigurationProperties("app.product.chat")
+public record ProductChatProperties(
+        Mode mode,
+        int retrieveK,
+        Stream stream,
+        Cache cache,
+        Tools tools,
+        Budget budget,
+        Router router
+) {
+    public ProductChatProperties {
+        if (mode == null) mode = Mode.TOOLS;
+        if (retrieveK <= 0) retrieveK = 5;
+        if (stream == null) stream = new Stream(null, null, 0, null, 0);
+        if (cache == null) cache = new Cache(true, 0, null, 0);
+        if (tools == null) tools = new Tools(true, null, 0);
+        if (budget == null) budget = new Budget(0, 0, 0, 0);
+        if (router == null) router = new Router(true, 0, 0, 0, null, null);
+    }
+
+    /**
+     * 임베딩 기반 의도 분류. 질문이 조회 예시 문장(lookupExamples)과 threshold 이상 비슷하고,
+     * 대화 예시 문장(openExamples)보다 margin 이상 더 비슷하면 모델 없이 검색 결과로 바로 답한다.
+     * 예시를 비워 두면 기본 예시를 쓴다.
+     */
+    public record Router(
+            boolean enabled,
+            double threshold,
+            double margin,
+            int k,
+            List<String> lookupExamples,
+            List<String> openExamples
+    ) {
+        public Router {
+            if (threshold <= 0) threshold = 0.75;
+            if (margin <= 0) margin = 0.03;
+            if (k <= 0) k = 5;
+            if (lookupExamples == null) lookupExamples = List.of();
+            if (openExamples == null) openExamples = List.of();
+        }
+    }
+
+    /**
+     * 도구 출력의 토큰 예산. 결과 하나(목록 전체)의 추정 토큰이 maxOutputTokens 를 넘으면 뒤쪽 항목을 잘라낸다.
+     * 상품마다 키워드는 maxKeywordsPerProduct 개까지, 목록 조회는 한 번에 maxPageSize 개까지 내려간다.
+     */
+    public record Budget(
+            int maxOutputTokens,
+            int maxKeywordsPerProduct,
+            int maxPageSize,
+            int summaryKeywords
+    ) {
+        public Budget {
+            if (maxOutputTokens <= 0) maxOutputTokens = 2_000;
+            if (maxKeywordsPerProduct <= 0) maxKeywordsPerProduct = 10;
+            if (maxPageSize <= 0) maxPageSize = 50;
+            if (summaryKeywords <= 0) summaryKeywords = 50;
+        }
+    }
+
+    /**
+     * 도구 호출 결과 메모. 한 번의 채팅(턴) 안에서는 항상 재사용하고,
+     * sharedMemo 가 켜져 있으면 sharedMemoTtl 동안 다른 턴과도 공유한다.
+     */
+    public record Tools(
+            boolean sharedMemo,
+            Duration sharedMemoTtl,
+            int sharedMemoMaxSize
+    ) {
+        public Tools {
+            if (sharedMemoTtl == null) sharedMemoTtl = Duration.ofSeconds(30);
+            if (sharedMemoMaxSize <= 0) sharedMemoMaxSize = 1_000;
+        }
+    }
+
+    /**
+     * 의미 기반 응답 캐시 설정. 질문 임베딩의 코사인 유사도가 similarityThreshold 이상인 이전 답변을 재사용한다.
+     */
+    public record Cache(
+            boolean enabled,
+            int maxSize,
+            Duration ttl,
+            double similarityThreshold
+    ) {
+        public Cache {
+            if (maxSize <= 0) maxSize = 500;
+            if (ttl == null) ttl = Duration.ofMinutes(10);
+            if (similarityThreshold <= 0) similarityThreshold = 0.92;
+        }
+    }
+
+    /**
+     * TOOLS: 모델이 검색 도구를 호출해 답한다 (모델 호출 2번 이상).
+     * RETRIEVE: 질문으로 먼저 KNN 검색을 하고 상위 retrieveK 개를 프롬프트에 넣어 모델을 한 번만 호출한다.
+     */
+    public enum Mode {
+        TOOLS, RETRIEVE
+    }
+
+    /**
+     * SSE 스트리밍 설정. 토큰은 coalesceMaxTokens 개가 모이거나 coalesceWindow 가 지나면 한 프레임으로 묶여 나간다.
+     * 동시에 열 수 있는 스트림은 maxConcurrent 개이며, 넘치면 503 으로 바로 거절한다.
+     */
+    public record Stream(
+            Duration timeout,
+            Duration heartbeat,
+            int coalesceMaxTokens,
+            Duration coalesceWindow,
+            int maxConcurrent
+    ) {
+        public Stream {
+            if (timeout == null) timeout = Duration.ofMinutes(2);
+            if (heartbeat == null) heartbeat = Duration.ofSeconds(15);
+            if (coalesceMaxTokens <= 0) coalesceMaxTokens = 16;
+            if (coalesceWindow == null) coalesceWindow = Duration.ofMillis(50);
+            if (maxConcurrent <= 0) maxConcurrent = 100;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.back.product.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 상품 저장 시 임베딩 방식.
+ * SYNC: 저장 요청 안에서 임베딩, ASYNC: embedding_outbox 에 기록만 하고 EmbeddingOutboxWorker 가 batchSize 단위로 채운다.
+ */
+@ConfigurationProperties("app.product.embedding")
+public record ProductEmbeddingProperties(
+        Mode mode,
+        int batchSize,
+        Duration pollInterval,
+        Duration lease
+) {
+    public ProductEmbeddingProperties {
+        if (mode == null) mode = Mode.SYNC;
+        if (batchSize <= 0) batchSize = 100;
+        if (pollInterval == null) pollInterval = Duration.ofSeconds(1);
+        if (lease == null) lease = Duration.ofMinutes(1);
+    }
+
+    public boolean async() {
+        return mode == Mode.ASYNC;
+    }
+
+    public enum Mode {
+        SYNC,
+        ASYNC
+    }
+}
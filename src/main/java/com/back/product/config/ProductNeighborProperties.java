@@ -0,0 +1,21 @@
+package com.back.product.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 유사 상품 목록 사전 계산 설정.
+ * 상품마다 size 개를 저장하고, 한 번에 바뀐 상품이 fullRebuildThreshold 개 이상이면(대량 적재 등) 증분 대신 전체를 다시 만든다.
+ */
+@ConfigurationProperties("app.product.neighbors")
+public record ProductNeighborProperties(
+        boolean enabled,
+        int size,
+        int batchSize,
+        int fullRebuildThreshold
+) {
+    public ProductNeighborProperties {
+        if (size <= 0) size = 20;
+        if (batchSize <= 0) batchSize = 200;
+        if (fullRebuildThreshold <= 0) fullRebuildThreshold = 500;
+    }
+}
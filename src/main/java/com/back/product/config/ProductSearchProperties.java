@@ -0,0 +1,88 @@
+package com.back.product.config;
+
+import com.back.product.search.VectorDistance;
+import com.back.product.search.VectorQuantization;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties("app.product.search")
+public record ProductSearchProperties(
+        Engine engine,
+        VectorDistance distance,
+        Cache cache,
+        Index index,
+        Quantization quantization
+) {
+    public ProductSearchProperties {
+        if (engine == null) engine = Engine.PGVECTOR;
+        if (distance == null) distance = VectorDistance.EUCLIDEAN;
+        if (cache == null) cache = new Cache(0, null);
+        if (index == null) index = new Index(null, 0, 0, 0, 0, 0, null);
+        if (quantization == null) quantization = new Quantization(null, 0);
+    }
+
+    public record Cache(
+            int maxSize,
+            Duration ttl
+    ) {
+        public Cache {
+            if (maxSize <= 0) maxSize = 1_000;
+            if (ttl == null) ttl = Duration.ofMinutes(10);
+        }
+    }
+
+    /**
+     * product.embedding 벡터 인덱스 설정.
+     * m / efConstruction 은 HNSW 빌드, lists 는 IVFFlat 빌드, efSearch / probes 는 쿼리 기본값이다.
+     */
+    public record Index(
+            IndexType type,
+            int m,
+            int efConstruction,
+            int lists,
+            int efSearch,
+            int probes,
+            String maintenanceWorkMem
+    ) {
+        public Index {
+            if (type == null) type = IndexType.HNSW;
+            if (m <= 0) m = 16;
+            if (efConstruction <= 0) efConstruction = 64;
+            if (lists <= 0) lists = 100;
+            if (efSearch <= 0) efSearch = 40;
+            if (probes <= 0) probes = 10;
+        }
+    }
+
+    /**
+     * 압축 표현으로 k * oversample 개의 후보를 뽑아 원본 벡터로 다시 정렬한다. type 이 NONE 이면 원본으로 바로 검색한다.
+     */
+    public record Quantization(
+            VectorQuantization type,
+            int oversample
+    ) {
+        public Quantization {
+            if (type == null) type = VectorQuantization.NONE;
+            if (oversample <= 0) oversample = 4;
+        }
+
+        public int candidates(int k) {
+            return type == VectorQuantization.NONE ? k : k * oversample;
+        }
+    }
+
+    /**
+     * PGVECTOR: Postgres 인덱스로 검색, HNSW: 기동 시 적재한 JVM 내 그래프로 검색 (index.m / ef-construction / ef-search 사용)
+     */
+    public enum Engine {
+        PGVECTOR,
+        HNSW
+    }
+
+    public enum IndexType {
+        NONE,
+        HNSW,
+        IVFFLAT
+    }
+}
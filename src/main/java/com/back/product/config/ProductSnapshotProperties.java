@@ -0,0 +1,13 @@
+package com.back.product.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.io.Resource;
+
+/**
+ * 카탈로그 스냅샷 설정. seed 가 있으면 빈 DB 를 기본 상품 대신 이 스냅샷으로 채운다(classpath: / file: 경로).
+ */
+@ConfigurationProperties("app.product.snapshot")
+public record ProductSnapshotProperties(
+        Resource seed
+) {
+}
@@ -0,0 +1,49 @@
+package com.back.product.controller;
+
+import com.back.product.service.ProductSnapshotService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 카탈로그 스냅샷(상품, 키워드, 임베딩) 내보내기 / 가져오기. 환경 복제나 초기 데이터 준비에 쓴다.
+ * GET 으로 받은 파일을 다른 환경에 POST 하면 임베딩 모델 호출 없이 같은 카탈로그가 만들어진다.
+ */
+@RestController
+@RequestMapping("/api/v1/admin/catalog/snapshot")
+@RequiredArgsConstructor
+public class CatalogSnapshotController {
+
+    private final ProductSnapshotService productSnapshotService;
+
+    @GetMapping(produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> export() {
+        StreamingResponseBody stream = productSnapshotService::export;
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"catalog.snapshot\"")
+                .body(stream);
+    }
+
+    /**
+     * 기존 상품에 추가한다. 스냅샷의 임베딩 버전이 현재 버전과 다르면 409.
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<ProductSnapshotService.ImportSummary> importSnapshot(InputStream body) throws IOException {
+        try {
+            return ResponseEntity.ok(productSnapshotService.importFrom(body));
+        } catch (IllegalArgumentException | EOFException e) {
+            // 형식이 잘못됐거나 잘린 파일
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+}
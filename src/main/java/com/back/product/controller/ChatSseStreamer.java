@@ -0,0 +1,124 @@
+package com.back.product.controller;
+
+import com.back.global.bulkhead.Bulkhead;
+import com.back.global.bulkhead.BulkheadConfig;
+import com.back.product.config.ProductChatProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Subscription;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.Disposable;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * 토큰 Flux 를 SseEmitter 로 내보낸다.
+ * <ul>
+ *     <li>토큰을 개수/시간 창 단위로 묶어 프레임 수를 줄인다.</li>
+ *     <li>프레임을 하나 보낸 뒤에야 다음 프레임을 요청하므로, 느린 클라이언트가 있으면 업스트림도 그만큼 기다린다.</li>
+ *     <li>클라이언트 연결 종료, 타임아웃, 전송 실패 시 업스트림 구독을 취소해 LLM 스트림과 도구 호출을 멈춘다.</li>
+ *     <li>주기적으로 heartbeat 주석을 보내 프록시가 유휴 연결을 끊지 않게 한다.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class ChatSseStreamer {
+
+    private final ProductChatProperties.Stream properties;
+    private final Bulkhead streams;
+
+    public ChatSseStreamer(ProductChatProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties.stream();
+        this.streams = BulkheadConfig.bind(
+                new Bulkhead("chat-stream", this.properties.maxConcurrent(), Duration.ZERO), meterRegistry);
+    }
+
+    /**
+     * 동시 스트림이 max-concurrent 개면 BulkheadFullException(503)으로 바로 거절한다.
+     * 스트리밍 모델 호출은 채팅 격벽을 쓰지 않으므로 이 상한이 동시 스트리밍 호출 수의 상한이다.
+     */
+    public SseEmitter stream(Flux<String> tokens) {
+        return stream(tokens, new SseEmitter(properties.timeout().toMillis()));
+    }
+
+    SseEmitter stream(Flux<String> tokens, SseEmitter emitter) {
+        Bulkhead.Permit permit = streams.acquire();
+
+        FrameSubscriber subscriber = new FrameSubscriber(emitter);
+        Disposable heartbeat = Flux.interval(properties.heartbeat())
+                .subscribe(tick -> subscriber.send(SseEmitter.event().comment("heartbeat")));
+
+        Runnable release = () -> {
+            subscriber.dispose();
+            heartbeat.dispose();
+            permit.close();
+        };
+        emitter.onCompletion(release);
+        emitter.onTimeout(() -> {
+            release.run();
+            emitter.complete();
+        });
+        emitter.onError(error -> release.run());
+
+        tokens.filter(token -> !token.isEmpty())
+                .bufferTimeout(properties.coalesceMaxTokens(), properties.coalesceWindow(), true)
+                .map(frame -> String.join("", frame))
+                .subscribe(subscriber);
+        return emitter;
+    }
+
+    public int activeStreams() {
+        return streams.maxConcurrent() - streams.availablePermits();
+    }
+
+    private static final class FrameSubscriber extends BaseSubscriber<String> {
+
+        private final SseEmitter emitter;
+
+        private FrameSubscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+            request(1);
+        }
+
+        @Override
+        protected void hookOnNext(String frame) {
+            if (send(SseEmitter.event().name("message").data(frame))) {
+                request(1);
+            }
+        }
+
+        @Override
+        protected void hookOnComplete() {
+            emitter.complete();
+        }
+
+        @Override
+        protected void hookOnError(Throwable error) {
+            emitter.completeWithError(error);
+        }
+
+        /**
+         * 클라이언트가 이미 떠났다면 구독을 끊고 false 를 반환한다.
+         */
+        boolean send(SseEmitter.SseEventBuilder event) {
+            if (isDisposed()) return false;
+            try {
+                emitter.send(event);
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Chat stream closed by client: {}", e.getMessage());
+                dispose();
+                emitter.completeWithError(e);
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.back.product.controller;
+
+import com.back.embedding.config.EmbeddingVersion;
+import com.back.product.dto.ReembedStatus;
+import com.back.product.service.ProductReembedService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 임베딩 모델 교체(재임베딩) 관리.
+ * POST 로 시작 → GET 으로 진행 확인 → status 가 READY 가 되면 cutover 로 전환한다.
+ */
+@RestController
+@RequestMapping("/api/v1/admin/embeddings/reembed")
+@RequiredArgsConstructor
+public class EmbeddingAdminController {
+
+    private final ProductReembedService productReembedService;
+
+    @PostMapping
+    public ResponseEntity<ReembedStatus> start(@RequestBody ReembedRequest request) {
+        try {
+            ReembedStatus status = productReembedService.start(new EmbeddingVersion(request.modelId(), request.dimensions()));
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<ReembedStatus> status() {
+        return productReembedService.status()
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/cutover")
+    public ResponseEntity<ReembedStatus> cutover() {
+        try {
+            return ResponseEntity.ok(productReembedService.cutover());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @DeleteMapping
+    public ResponseEntity<ReembedStatus> cancel() {
+        try {
+            return ResponseEntity.ok(productReembedService.cancel());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    public record ReembedRequest(String modelId, int dimensions) {}
+}
@@ -1,6 +1,11 @@
 package com.back.product.controller;
 
+import com.back.global.bulkhead.BulkheadFullException;
+import com.back.product.config.ProductChatProperties;
+import com.back.product.dto.ProductView;
 import com.back.product.entity.Product;
+import com.back.product.search.SearchOptions;
+import com.back.product.service.ProductBulkIngestService;
 import com.back.product.service.ProductChatService;
 import com.back.product.service.ProductService;
 import lombok.RequiredArgsConstructor;
@@ -8,9 +13,13 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
-import reactor.core.publisher.Flux;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
 
 @RestController
@@ -18,10 +27,22 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ProductController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1_000;
+    private static final int STREAM_CHUNK_SIZE = 500;
+    private static final int MAX_BATCH_QUERIES = 100;
+
     private final ProductService productService;
 
     private final ProductChatService productChatService;
 
+    private final ProductBulkIngestService productBulkIngestService;
+
+    private final ChatSseStreamer chatSseStreamer;
+
+    private final ObjectMapper objectMapper;
+
     // ==================== CREATE ====================
     @PostMapping
     public ResponseEntity<Product> create(@RequestBody CreateRequest request) {
@@ -29,6 +50,24 @@ public class ProductController {
         return ResponseEntity.ok(product);
     }
 
+    /**
+     * NDJSON 한 줄에 상품 하나({"name": ..., "keywords": [...]}).
+     * 응답도 NDJSON 으로, 청크마다 progress, 잘못된 줄마다 error, 마지막에 summary 가 내려간다.
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> bulkCreate(InputStream body) {
+        StreamingResponseBody stream = out -> productBulkIngestService.ingest(body, event -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(event));
+                out.write('\n');
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok(stream);
+    }
+
     // ==================== READ ====================
     @GetMapping("/{id}")
     public ResponseEntity<Product> findById(@PathVariable Long id) {
@@ -37,9 +76,47 @@ public class ProductController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * 파라미터가 없으면 이전과 같이 전체 목록을 반환한다. 카탈로그가 크면 /stream 이나 페이지 조회를 쓴다.
+     * after 나 size 를 주면 id 순 키셋 페이지네이션(size 기본 100). 다음 페이지가 있으면 X-Next-Cursor 헤더의 값을 after 로 넘긴다.
+     */
     @GetMapping
-    public ResponseEntity<List<Product>> findAll() {
-        return ResponseEntity.ok(productService.findAll());
+    public ResponseEntity<List<Product>> findAll(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer size) {
+        if (after == null && size == null) {
+            List<Product> all = new ArrayList<>();
+            productService.forEachPage(STREAM_CHUNK_SIZE, all::addAll);
+            return ResponseEntity.ok(all);
+        }
+
+        int pageSize = Math.clamp(size == null ? DEFAULT_PAGE_SIZE : size, 1, MAX_PAGE_SIZE);
+        List<Product> page = productService.findPage(after, pageSize);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.size() == pageSize) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(page.getLast().getId()));
+        }
+        return response.body(page);
+    }
+
+    /**
+     * 전체 카탈로그를 NDJSON(한 줄에 상품 하나)으로 스트리밍한다. 서버는 청크 단위로만 읽어 메모리가 일정하다.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        StreamingResponseBody stream = out -> productService.forEachPage(STREAM_CHUNK_SIZE, page -> {
+            try {
+                for (Product product : page) {
+                    out.write(objectMapper.writeValueAsBytes(product));
+                    out.write('\n');
+                }
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok(stream);
     }
 
     // ==================== UPDATE ====================
@@ -48,6 +125,8 @@ public class ProductController {
         try {
             Product product = productService.update(id, request.name(), request.keywords());
             return ResponseEntity.ok(product);
+        } catch (BulkheadFullException e) {
+            throw e;
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -62,19 +141,39 @@ public class ProductController {
 
     // ==================== KNN SEARCH ====================
     @PostMapping("/search")
-    public ResponseEntity<List<Product>> knnSearch(
+    public ResponseEntity<List<ProductView>> knnSearch(
             @RequestBody SearchRequest request) {
-        List<Product> results = productService.knnSearch(request.keywords(), request.k());
+        List<ProductView> results = productService.searchViews(request.keywords(), request.k(), request.options());
         return ResponseEntity.ok(results);
     }
 
+    /**
+     * 여러 키워드 묶음을 한 번에 검색한다. 응답은 queries 와 같은 순서의 결과 목록이다.
+     */
+    @PostMapping("/search/batch")
+    public ResponseEntity<List<List<ProductView>>> knnSearchBatch(
+            @RequestBody BatchSearchRequest request) {
+        if (request.queries().size() > MAX_BATCH_QUERIES) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<ProductService.BatchSearch> searches = request.queries().stream()
+                .map(query -> new ProductService.BatchSearch(query.keywords(), query.k()))
+                .toList();
+        return ResponseEntity.ok(productService.searchViewsBatch(searches, new SearchOptions(request.efSearch(), request.probes())));
+    }
+
     @GetMapping("/{id}/similar")
-    public ResponseEntity<List<Product>> findSimilarProducts(
+    public ResponseEntity<List<ProductView>> findSimilarProducts(
             @PathVariable Long id,
-            @RequestParam(defaultValue = "5") int k) {
+            @RequestParam(defaultValue = "5") int k,
+            @RequestParam(required = false) Integer efSearch,
+            @RequestParam(required = false) Integer probes) {
         try {
-            List<Product> results = productService.findSimilarProducts(id, k);
+            List<ProductView> results = productService.findSimilarViews(id, k, new SearchOptions(efSearch, probes));
             return ResponseEntity.ok(results);
+        } catch (BulkheadFullException e) {
+            throw e;
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -83,46 +182,49 @@ public class ProductController {
     // ==================== CHAT ====================
     @PostMapping("/chat")
     public ResponseEntity<ChatResponse> chat(@RequestBody ChatRequest request) {
-        var response = productChatService.chat(request.message());
+        var response = productChatService.chat(request.message(), request.mode());
         return ResponseEntity.ok(new ChatResponse(response.message()));
     }
 
     // ==================== Request DTOs ====================
     public record CreateRequest(String name, List<String> keywords) {}
     public record UpdateRequest(String name, List<String> keywords) {}
-    public record SearchRequest(List<String> keywords, int k) {
+    public record SearchRequest(List<String> keywords, int k, Integer efSearch, Integer probes) {
         public SearchRequest {
             if (k <= 0) k = 10;
         }
+
+        public SearchRequest(List<String> keywords, int k) {
+            this(keywords, k, null, null);
+        }
+
+        public SearchOptions options() {
+            return new SearchOptions(efSearch, probes);
+        }
+    }
+    public record BatchSearchRequest(List<SearchRequest> queries, Integer efSearch, Integer probes) {
+        public BatchSearchRequest {
+            queries = queries == null ? List.of() : queries;
+        }
+
+        public BatchSearchRequest(List<SearchRequest> queries) {
+            this(queries, null, null);
+        }
+    }
+    public record ChatRequest(String message, ProductChatProperties.Mode mode) {
+        public ChatRequest(String message) {
+            this(message, null);
+        }
     }
-    public record ChatRequest(String message) {}
     public record ChatResponse(String message) {}
 
-    @GetMapping(value="/chat/stream",produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter chat(@RequestParam String message) {
-        SseEmitter emitter = new SseEmitter(0L);
-
-        // 2. ChatClient를 통해 스트림(Flux) 요청
-        Flux<String> response = productChatService.chatStream(message);
-
-        // 3. 스트림 구독 및 전송
-        response.subscribe(
-                r -> {
-                    try {
-                        // 토큰 텍스트 추출
-                        if (r != null) {
-                            emitter.send(SseEmitter.event()
-                                    .name("message")
-                                    .data(r));
-                        }
-                    } catch (IOException e) {
-                        emitter.completeWithError(e);
-                    }
-                },
-                error -> emitter.completeWithError(error), // 에러 발생 시
-                () -> emitter.complete() // 스트림 종료 시
-        );
-
-        return emitter;
+    /**
+     * 토큰을 묶어 SSE message 이벤트로 내보낸다. 연결이 끊기거나 시간이 초과되면 LLM 스트림도 취소된다.
+     * mode(tools | retrieve)를 생략하면 설정을 따른다.
+     */
+    @GetMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter chat(@RequestParam String message,
+                           @RequestParam(required = false) ProductChatProperties.Mode mode) {
+        return chatSseStreamer.stream(productChatService.chatStream(message, mode));
     }
 }
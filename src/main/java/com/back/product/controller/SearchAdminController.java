@@ -0,0 +1,38 @@
+package com.back.product.controller;
+
+import com.back.product.search.PgVectorSearchEngine;
+import com.back.product.search.PgVectorSearchEngine.RecallReport;
+import com.back.product.search.SearchOptions;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 검색 인덱스 진단.
+ */
+@RestController
+@RequestMapping("/api/v1/admin/search")
+@RequiredArgsConstructor
+public class SearchAdminController {
+
+    private static final int MAX_SAMPLES = 500;
+
+    private final PgVectorSearchEngine pgVectorSearchEngine;
+
+    /**
+     * 현재 인덱스 설정(양자화 포함)의 recall@k. efSearch / probes 를 바꿔 가며 비교할 수 있다.
+     */
+    @GetMapping("/recall")
+    public ResponseEntity<RecallReport> recall(
+            @RequestParam(defaultValue = "50") int samples,
+            @RequestParam(defaultValue = "10") int k,
+            @RequestParam(required = false) Integer efSearch,
+            @RequestParam(required = false) Integer probes) {
+        RecallReport report = pgVectorSearchEngine.measureRecall(
+                Math.clamp(samples, 1, MAX_SAMPLES), Math.max(k, 1), new SearchOptions(efSearch, probes));
+        return ResponseEntity.ok(report);
+    }
+}
@@ -0,0 +1,11 @@
+package com.back.product.dto;
+
+import java.util.List;
+
+/**
+ * 카탈로그 요약. 채팅 모델이 전체 목록을 훑지 않고도 어떤 상품이 있는지 파악하도록 상품 수와 자주 쓰인 키워드만 담는다.
+ */
+public record CatalogSummary(long productCount, List<KeywordCount> topKeywords) {
+
+    public record KeywordCount(String keyword, long products) {}
+}
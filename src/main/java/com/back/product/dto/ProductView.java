@@ -0,0 +1,19 @@
+package com.back.product.dto;
+
+import java.util.List;
+
+/**
+ * 조회 전용 상품 모델. 엔티티를 거치지 않고 한 번의 쿼리로 만들어지며 불변이라 그대로 캐시할 수 있다.
+ * distance 는 벡터 검색 결과일 때만 채워진다.
+ * embeddingPending 이면 비동기 임베딩을 기다리는 중이다. 수정된 상품이라면 이전 키워드의 임베딩으로 검색된 결과다.
+ */
+public record ProductView(Long id, String name, List<String> keywords, Double distance, boolean embeddingPending) {
+
+    public ProductView(Long id, String name, List<String> keywords, Double distance) {
+        this(id, name, keywords, distance, false);
+    }
+
+    public ProductView withDistance(double distance) {
+        return new ProductView(id, name, keywords, distance, embeddingPending);
+    }
+}
@@ -0,0 +1,20 @@
+package com.back.product.dto;
+
+import com.back.embedding.entity.EmbeddingMigration;
+
+import java.time.Instant;
+
+/**
+ * 재임베딩 작업 상태. remaining 은 아직 대상 버전으로 채워지지 않은 상품 수다.
+ */
+public record ReembedStatus(
+        Long id,
+        String activeModel,
+        String targetModel,
+        EmbeddingMigration.Status status,
+        long lastProductId,
+        long processed,
+        long remaining,
+        Instant updatedAt
+) {
+}
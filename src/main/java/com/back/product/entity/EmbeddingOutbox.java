@@ -0,0 +1,37 @@
+package com.back.product.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * 임베딩이 필요한 상품 변경 기록. 상품 저장과 같은 트랜잭션에서 쌓이고 EmbeddingOutboxWorker 가 비운다.
+ */
+@Entity
+@Table(indexes = @Index(columnList = "productId"))
+@NoArgsConstructor
+public class EmbeddingOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Getter
+    private Long id;
+
+    @Column(nullable = false)
+    @Getter
+    private Long productId;
+
+    @Column(nullable = false)
+    @Getter
+    private Instant createdAt;
+
+    // 워커가 가져간 뒤 이 시각까지 다른 워커가 가져가지 않는다. 워커가 죽으면 이후 다시 처리된다.
+    @Column
+    private Instant lockedUntil;
+
+    public EmbeddingOutbox(Long productId) {
+        this.productId = productId;
+        this.createdAt = Instant.now();
+    }
+}
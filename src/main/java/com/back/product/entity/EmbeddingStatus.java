@@ -0,0 +1,9 @@
+package com.back.product.entity;
+
+public enum EmbeddingStatus {
+    // 키워드가 없어 임베딩할 것이 없음
+    NONE,
+    // 아웃박스에 등록되어 백그라운드 임베딩을 기다리는 중
+    PENDING,
+    READY
+}
@@ -33,6 +33,19 @@ public class Product {
     @Setter
     private float[] embedding;
 
+    // embedding 을 만든 임베딩 버전(EmbeddingVersion.key)
+    @Column(name = "embedding_model")
+    @Getter
+    @Setter
+    private String embeddingModel;
+
+    // 비동기 임베딩 모드에서 PENDING 인 동안 embedding 은 비어 있거나(신규) 이전 키워드 기준 값(수정)이다
+    @Column(name = "embedding_status")
+    @Enumerated(EnumType.STRING)
+    @Getter
+    @Setter
+    private EmbeddingStatus embeddingStatus;
+
     public void addKeyword(ProductKeyword keyword) {
         keywords.add(keyword);
         keyword.setProduct(this);
@@ -0,0 +1,34 @@
+package com.back.product.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * 상품별로 미리 계산한 유사 상품 목록의 한 행. ProductNeighborService 가 JDBC 로 채우며, 엔티티는 스키마 정의용이다.
+ */
+@Entity
+@Table(indexes = {
+        @Index(columnList = "productId, rank", unique = true),
+        @Index(columnList = "neighborId")
+})
+@NoArgsConstructor
+@Getter
+public class ProductNeighbor {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Long neighborId;
+
+    // 0 부터 가까운 순
+    @Column(nullable = false)
+    private int rank;
+
+    @Column(nullable = false)
+    private double distance;
+}
@@ -0,0 +1,22 @@
+package com.back.product.event;
+
+import java.util.List;
+
+/**
+ * 상품이 생성/수정/삭제되었을 때 발행되는 이벤트. 대량 적재처럼 여러 상품이 한 번에 바뀌면 id 목록을 담는다.
+ * 리스너는 커밋 이후(@TransactionalEventListener)에 처리하여 롤백된 변경에 반응하지 않도록 한다.
+ */
+public record ProductChangedEvent(List<Long> productIds, Type type) {
+
+    public ProductChangedEvent(Long productId, Type type) {
+        this(List.of(productId), type);
+    }
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        // 이름/키워드는 그대로이고 임베딩만 채워지거나 바뀜(아웃박스 워커, 재임베딩 repair 가 발행)
+        EMBEDDED
+    }
+}
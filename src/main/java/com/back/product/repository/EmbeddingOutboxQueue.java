@@ -0,0 +1,119 @@
+package com.back.product.repository;
+
+import com.back.global.jdbc.PgVectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * embedding_outbox 를 작업 큐로 사용하기 위한 JDBC 쿼리.
+ * 가져가기(claim)는 짧은 트랜잭션으로 리스를 잡고 바로 커밋하므로, 임베딩 모델 호출 동안 커넥션이나 락을 붙잡지 않는다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EmbeddingOutboxQueue {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 리스가 없거나 만료된 항목을 최대 limit 개 가져가고 keywords 를 함께 읽는다.
+     */
+    @Transactional
+    public List<Claimed> claim(int limit, Duration lease) {
+        List<Claimed> claimed = jdbcTemplate.query("""
+                        update embedding_outbox
+                        set locked_until = now() + make_interval(secs => ?)
+                        where id in (
+                            select id from embedding_outbox
+                            where locked_until is null or locked_until < now()
+                            order by id
+                            limit ?
+                            for update skip locked
+                        )
+                        returning id, product_id
+                        """,
+                (rs, rowNum) -> new Claimed(rs.getLong("id"), rs.getLong("product_id"), List.of()),
+                (double) lease.toSeconds(), limit);
+
+        if (claimed.isEmpty()) return claimed;
+
+        Map<Long, List<String>> keywords = new HashMap<>();
+        jdbcTemplate.query("select product_id, keyword from product_keyword where product_id = any(?) order by id",
+                rs -> {
+                    keywords.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>()).add(rs.getString(2));
+                },
+                (Object) claimed.stream().map(Claimed::productId).distinct().toArray(Long[]::new));
+
+        return claimed.stream()
+                .map(c -> new Claimed(c.id(), c.productId(), keywords.getOrDefault(c.productId(), List.of())))
+                .toList();
+    }
+
+    /**
+     * 임베딩을 반영하고 가져간 항목을 지운다. 가져간 뒤 상품이 바뀌었다면 그 상품은 덮어쓰지 않는다.
+     * <ul>
+     *     <li>더 새로운 항목이 쌓였으면 그 항목이 처리한다. 새로운지는 상품마다 이번에 가져간 가장 큰 항목 id 와 비교한다
+     *     (배치 전체의 최대 id 와 비교하면 다른 워커가 가져간 더 새로운 항목을 놓친다).</li>
+     *     <li>키워드가 가져갈 때 읽은 값과 다르면 건너뛴다. 키워드를 비우는 수정은 항목 없이 바로 NONE 으로 저장되므로
+     *     id 비교만으로는 이전 키워드로 만든 임베딩이 다시 READY 로 쓰인다.</li>
+     * </ul>
+     *
+     * @param embeddings 상품 id → 가져갈 때 읽은 키워드로 만든 임베딩(키워드가 없으면 null)
+     * @return 실제로 임베딩이 반영된 상품 id
+     */
+    @Transactional
+    public List<Long> complete(List<Claimed> claimed, String embeddingModel, Map<Long, float[]> embeddings) {
+        Map<Long, Claimed> latest = new LinkedHashMap<>();
+        for (Claimed c : claimed) latest.merge(c.productId(), c, (a, b) -> a.id() > b.id() ? a : b);
+        List<Claimed> rows = latest.values().stream()
+                .filter(c -> embeddings.containsKey(c.productId()))
+                .toList();
+
+        List<Long> updated = new ArrayList<>();
+        if (!rows.isEmpty()) {
+            int[] counts = jdbcTemplate.batchUpdate("""
+                            update product
+                            set embedding = ?::vector, embedding_model = ?, embedding_status = ?
+                            where id = ?
+                              and not exists (select 1 from embedding_outbox o where o.product_id = product.id and o.id > ?)
+                              and array(select keyword from product_keyword where product_id = product.id order by id) = ?
+                            """,
+                    rows,
+                    rows.size(),
+                    (ps, c) -> {
+                        float[] embedding = embeddings.get(c.productId());
+                        ps.setString(1, embedding == null ? null : PgVectors.toLiteral(embedding));
+                        ps.setString(2, embedding == null ? null : embeddingModel);
+                        ps.setString(3, embedding == null ? "NONE" : "READY");
+                        ps.setLong(4, c.productId());
+                        ps.setLong(5, c.id());
+                        ps.setArray(6, ps.getConnection().createArrayOf("varchar", c.keywords().toArray()));
+                    })[0];
+            for (int i = 0; i < rows.size(); i++) {
+                if (counts[i] > 0) updated.add(rows.get(i).productId());
+            }
+        }
+
+        jdbcTemplate.update("delete from embedding_outbox where id = any(?)",
+                (Object) claimed.stream().map(Claimed::id).toArray(Long[]::new));
+        return updated;
+    }
+
+    public Stats stats() {
+        return jdbcTemplate.queryForObject(
+                "select count(*), coalesce(extract(epoch from now() - min(created_at)), 0) from embedding_outbox",
+                (rs, rowNum) -> new Stats(rs.getLong(1), rs.getDouble(2)));
+    }
+
+    public record Claimed(Long id, Long productId, List<String> keywords) {}
+
+    /**
+     * @param depth      대기 중인 항목 수
+     * @param lagSeconds 가장 오래된 항목이 기다린 시간
+     */
+    public record Stats(long depth, double lagSeconds) {}
+}
@@ -0,0 +1,7 @@
+package com.back.product.repository;
+
+import com.back.product.entity.EmbeddingOutbox;
+import org.springframework.data.repository.CrudRepository;
+
+public interface EmbeddingOutboxRepository extends CrudRepository<EmbeddingOutbox, Long> {
+}
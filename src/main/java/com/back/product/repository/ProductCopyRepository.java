@@ -0,0 +1,114 @@
+package com.back.product.repository;
+
+import com.back.global.jdbc.PgVectors;
+import com.back.product.entity.EmbeddingStatus;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Postgres COPY 로 상품과 키워드를 한 번에 적재한다.
+ * IDENTITY 컬럼은 JDBC 배치가 되지 않으므로, id 를 시퀀스에서 미리 예약한 뒤 product / product_keyword 를 각각 COPY 한다.
+ * 스냅샷 내보내기용으로 전체 상품을 커서로 읽는 것도 여기서 한다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductCopyRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * id 예약과 COPY 가 같은 커넥션에서 실행되어야 하므로 호출하는 쪽 트랜잭션 안에서만 동작한다.
+     *
+     * @return products 와 같은 순서의 새 상품 id
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Long> copyIn(List<NewProduct> products) {
+        if (products.isEmpty()) return List.of();
+
+        List<Long> ids = jdbcTemplate.queryForList(
+                "select nextval(pg_get_serial_sequence('product', 'id')) from generate_series(1, ?)",
+                Long.class, products.size());
+
+        StringBuilder productCsv = new StringBuilder();
+        StringBuilder keywordCsv = new StringBuilder();
+        for (int i = 0; i < products.size(); i++) {
+            NewProduct product = products.get(i);
+            Long id = ids.get(i);
+
+            productCsv.append(id).append(',')
+                    .append(quote(product.name())).append(',')
+                    .append(product.embedding() == null ? "" : quote(PgVectors.toLiteral(product.embedding()))).append(',')
+                    .append(product.embedding() == null ? "" : quote(product.embeddingModel())).append(',')
+                    .append(product.embedding() == null ? EmbeddingStatus.NONE : EmbeddingStatus.READY)
+                    .append('\n');
+
+            for (String keyword : product.keywords()) {
+                keywordCsv.append(id).append(',').append(quote(keyword)).append('\n');
+            }
+        }
+
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            CopyManager copyManager = con.unwrap(PGConnection.class).getCopyAPI();
+            try {
+                copyManager.copyIn("copy product (id, name, embedding, embedding_model, embedding_status) from stdin (format csv)",
+                        new StringReader(productCsv.toString()));
+                copyManager.copyIn("copy product_keyword (product_id, keyword) from stdin (format csv)",
+                        new StringReader(keywordCsv.toString()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        });
+
+        return ids;
+    }
+
+    /**
+     * 전체 상품을 id 순으로 커서에서 읽어 consumer 에 넘긴다. 전체를 메모리에 올리지 않는다.
+     * 임베딩이 없거나 embeddingModel 이 아닌 버전으로 만든 것이면 embedding 은 null 이다.
+     */
+    @Transactional(readOnly = true)
+    public void forEachProduct(String embeddingModel, int fetchSize, Consumer<NewProduct> consumer) {
+        jdbcTemplate.query(con -> {
+                    var ps = con.prepareStatement("""
+                            select p.name,
+                                   array(select k.keyword from product_keyword k where k.product_id = p.id order by k.id),
+                                   case when p.embedding_model = ? then p.embedding::text end
+                            from product p
+                            order by p.id
+                            """);
+                    ps.setString(1, embeddingModel);
+                    ps.setFetchSize(fetchSize);
+                    return ps;
+                },
+                rs -> {
+                    String[] keywords = (String[]) rs.getArray(2).getArray();
+                    String embedding = rs.getString(3);
+                    consumer.accept(new NewProduct(
+                            rs.getString(1),
+                            Arrays.asList(keywords),
+                            embedding == null ? null : PgVectors.parse(embedding),
+                            embedding == null ? null : embeddingModel));
+                });
+    }
+
+    // CSV 에서 따옴표 없는 빈 값은 NULL 이므로 문자열은 항상 따옴표로 감싼다
+    private static String quote(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    public record NewProduct(String name, List<String> keywords, float[] embedding, String embeddingModel) {}
+}
@@ -0,0 +1,72 @@
+package com.back.product.repository;
+
+import com.back.product.search.VectorHit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * product_neighbor 조회/갱신.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductNeighborRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<VectorHit> findNeighbors(Long productId, int limit) {
+        return jdbcTemplate.query(
+                "select neighbor_id, distance from product_neighbor where product_id = ? order by rank limit ?",
+                (rs, rowNum) -> new VectorHit(rs.getLong(1), rs.getDouble(2)),
+                productId, limit);
+    }
+
+    /**
+     * ids 중 하나라도 이웃으로 갖고 있는 상품.
+     */
+    public Set<Long> findReferencing(Collection<Long> ids) {
+        if (ids.isEmpty()) return Set.of();
+
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "select distinct product_id from product_neighbor where neighbor_id = any(?)",
+                Long.class, (Object) ids.toArray(Long[]::new)));
+    }
+
+    public boolean isEmpty() {
+        return Boolean.FALSE.equals(jdbcTemplate.queryForObject(
+                "select exists (select 1 from product_neighbor)", Boolean.class));
+    }
+
+    /**
+     * 상품들의 목록을 통째로 바꾼다. neighbors 에 없는 상품(임베딩이 없거나 삭제됨)은 목록이 지워진다.
+     */
+    @Transactional
+    public void replace(Collection<Long> productIds, Map<Long, List<VectorHit>> neighbors) {
+        if (productIds.isEmpty()) return;
+
+        // 같은 상품 목록을 동시에 바꾸면 (product_id, rank) 유니크 제약에 걸리므로 인스턴스 간에도 직렬화한다
+        jdbcTemplate.queryForObject("select pg_advisory_xact_lock(hashtext('product_neighbor'))", Object.class);
+        jdbcTemplate.update("delete from product_neighbor where product_id = any(?)",
+                (Object) productIds.toArray(Long[]::new));
+
+        List<Object[]> rows = new ArrayList<>();
+        neighbors.forEach((productId, hits) -> {
+            for (int rank = 0; rank < hits.size(); rank++) {
+                VectorHit hit = hits.get(rank);
+                rows.add(new Object[]{productId, hit.id(), rank, hit.distance()});
+            }
+        });
+        jdbcTemplate.batchUpdate(
+                "insert into product_neighbor (product_id, neighbor_id, rank, distance) values (?, ?, ?, ?)", rows);
+    }
+
+    /**
+     * 더 이상 존재하지 않는 상품의 목록을 지운다.
+     */
+    public void deleteOrphans() {
+        jdbcTemplate.update("delete from product_neighbor n where not exists (select 1 from product p where p.id = n.product_id)");
+    }
+}
@@ -0,0 +1,178 @@
+package com.back.product.repository;
+
+import com.back.global.jdbc.PgVectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * 재임베딩용 JDBC 쿼리.
+ * 새 버전 벡터는 섀도 컬럼(embedding_next / embedding_next_model)에 채우고, 전환 때 컬럼 이름을 맞바꾼다.
+ * 섀도 컬럼은 엔티티에 매핑하지 않으며 재임베딩 중에만 존재한다.
+ * <p>
+ * 섀도 컬럼이 있는 동안에는 product_keyword 트리거가 키워드가 바뀐 상품의 섀도 값을 같은 트랜잭션에서 지운다.
+ * 어느 인스턴스에서, 어떤 경로(API, 대량 적재, 스냅샷)로 수정하든 이전 키워드로 만든 섀도 벡터가 전환되지 않는다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductReembedRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 이전에 취소된 작업이 남긴 값이 섞이지 않도록 섀도 컬럼을 새로 만든다.
+     */
+    public void resetShadowColumns(int dimensions) {
+        dropInvalidationTrigger();
+        jdbcTemplate.execute("drop index if exists product_reembed_ann_idx");
+        jdbcTemplate.execute("""
+                alter table product
+                    drop column if exists embedding_next,
+                    drop column if exists embedding_next_model,
+                    add column embedding_next vector(%d),
+                    add column embedding_next_model varchar(255)
+                """.formatted(dimensions));
+        installInvalidationTrigger();
+    }
+
+    /**
+     * 키워드가 바뀐 상품의 섀도 값을 지우는 트리거. 여러 번 불러도 된다.
+     */
+    public void installInvalidationTrigger() {
+        dropInvalidationTrigger();
+        jdbcTemplate.execute("""
+                create or replace function product_reembed_invalidate() returns trigger as $$
+                begin
+                    if tg_op <> 'INSERT' then
+                        update product set embedding_next = null, embedding_next_model = null
+                        where id = old.product_id and embedding_next_model is not null;
+                    end if;
+                    if tg_op <> 'DELETE' then
+                        update product set embedding_next = null, embedding_next_model = null
+                        where id = new.product_id and embedding_next_model is not null;
+                    end if;
+                    return null;
+                end
+                $$ language plpgsql
+                """);
+        jdbcTemplate.execute("""
+                create trigger product_reembed_invalidate
+                    after insert or update or delete on product_keyword
+                    for each row execute function product_reembed_invalidate()
+                """);
+    }
+
+    /**
+     * 취소/실패한 작업의 섀도 컬럼, 인덱스, 트리거를 지운다. 남겨 두면 상품 쓰기마다 유지 비용을 낸다.
+     */
+    public void dropShadowColumns() {
+        dropInvalidationTrigger();
+        jdbcTemplate.execute("drop index if exists product_reembed_ann_idx");
+        jdbcTemplate.execute("alter table product drop column if exists embedding_next, drop column if exists embedding_next_model");
+    }
+
+    public boolean shadowColumnsExist() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("""
+                select exists (select 1 from information_schema.columns
+                               where table_name = 'product' and column_name = 'embedding_next')
+                """, Boolean.class));
+    }
+
+    /**
+     * afterId 다음부터 id 순으로, target 컬럼의 버전이 model 이 아닌 키워드 있는 상품.
+     */
+    public List<Row> findOutdated(Target target, String model, long afterId, int limit) {
+        return jdbcTemplate.query("""
+                        select p.id, array_agg(k.keyword order by k.id) as keywords
+                        from product p
+                        join product_keyword k on k.product_id = p.id
+                        where p.id > ? and p.%s is distinct from ?
+                        group by p.id
+                        order by p.id
+                        limit ?
+                        """.formatted(target.modelColumn),
+                (rs, rowNum) -> new Row(rs.getLong("id"), toList(rs.getArray("keywords"))),
+                afterId, model, limit);
+    }
+
+    public long countOutdated(Target target, String model) {
+        return jdbcTemplate.queryForObject("""
+                select count(*) from product p
+                where p.%s is distinct from ?
+                  and exists (select 1 from product_keyword k where k.product_id = p.id)
+                """.formatted(target.modelColumn), Long.class, model);
+    }
+
+    /**
+     * 읽은 뒤 키워드가 바뀐 상품은 건너뛴다(다음 패스에서 새 키워드로 다시 처리된다).
+     *
+     * @return 반영된 상품 수
+     */
+    public int write(Target target, String model, List<Row> rows, Map<Long, float[]> embeddings) {
+        if (rows.isEmpty()) return 0;
+
+        int[] counts = jdbcTemplate.batchUpdate("""
+                        update product set %s = ?::vector, %s = ?
+                        where id = ?
+                          and array(select keyword from product_keyword where product_id = product.id order by id) = ?
+                        """.formatted(target.column, target.modelColumn),
+                rows,
+                rows.size(),
+                (ps, row) -> {
+                    ps.setString(1, PgVectors.toLiteral(embeddings.get(row.id())));
+                    ps.setString(2, model);
+                    ps.setLong(3, row.id());
+                    ps.setArray(4, ps.getConnection().createArrayOf("varchar", row.keywords().toArray()));
+                })[0];
+        return Arrays.stream(counts).sum();
+    }
+
+    /**
+     * 상품 쓰기를 막는다. 전환 트랜잭션 안에서 남은 작업이 없는지 확인하기 전에 호출한다.
+     */
+    public void lockForCutover() {
+        jdbcTemplate.execute("lock table product in share row exclusive mode");
+    }
+
+    /**
+     * 섀도 컬럼을 기본 컬럼으로 맞바꾸고 이전 벡터를 버린다. 트랜잭션 안에서 호출해야 한다.
+     */
+    public void swapShadowColumns() {
+        dropInvalidationTrigger();
+        jdbcTemplate.execute("alter table product rename column embedding to embedding_prev");
+        jdbcTemplate.execute("alter table product rename column embedding_model to embedding_prev_model");
+        jdbcTemplate.execute("alter table product rename column embedding_next to embedding");
+        jdbcTemplate.execute("alter table product rename column embedding_next_model to embedding_model");
+        jdbcTemplate.execute("alter table product drop column embedding_prev, drop column embedding_prev_model");
+    }
+
+    private void dropInvalidationTrigger() {
+        jdbcTemplate.execute("drop trigger if exists product_reembed_invalidate on product_keyword");
+        jdbcTemplate.execute("drop function if exists product_reembed_invalidate()");
+    }
+
+    private static List<String> toList(Array array) throws SQLException {
+        return List.of((String[]) array.getArray());
+    }
+
+    public enum Target {
+        // 재임베딩 중 새 버전을 채우는 섀도 컬럼
+        SHADOW("embedding_next", "embedding_next_model"),
+        // 검색에 쓰이는 컬럼. 전환 직후 이전 버전으로 저장된 상품을 고칠 때 사용한다.
+        LIVE("embedding", "embedding_model");
+
+        private final String column;
+        private final String modelColumn;
+
+        Target(String column, String modelColumn) {
+            this.column = column;
+            this.modelColumn = modelColumn;
+        }
+    }
+
+    public record Row(Long id, List<String> keywords) {}
+}
@@ -2,11 +2,19 @@ package com.back.product.repository;
 
 import com.back.product.entity.Product;
 import org.springframework.data.domain.Limit;
-import org.springframework.data.domain.Score;
-import org.springframework.data.domain.SearchResults;
-import org.springframework.data.domain.Vector;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 
+import java.util.Collection;
+import java.util.List;
+
 public interface ProductRepository extends CrudRepository<Product,Long> {
-    SearchResults<Product> searchByEmbeddingNear(Vector vector, Score score, Limit limit);
-}
\ No newline at end of file
+
+    // 키셋 페이지네이션: 마지막으로 본 id 다음부터 limit 개
+    @Query("select p.id from Product p where p.id > :afterId order by p.id")
+    List<Long> findIdsAfter(Long afterId, Limit limit);
+
+    // 페이지 단위로 keywords 를 한 번에 가져와 상품마다 지연 로딩이 일어나지 않도록 한다
+    @Query("select distinct p from Product p left join fetch p.keywords where p.id in :ids order by p.id")
+    List<Product> findAllWithKeywordsByIdIn(Collection<Long> ids);
+}
@@ -0,0 +1,210 @@
+package com.back.product.repository;
+
+import com.back.global.jdbc.PgVectors;
+import com.back.product.search.VectorDistance;
+import com.back.product.search.VectorHit;
+import com.back.product.search.VectorQuery;
+import com.back.product.search.VectorQuantization;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+
+/**
+ * pgvector 네이티브 KNN 쿼리.
+ * ORDER BY 에 인덱스 operator 를 그대로 써야 HNSW/IVFFlat 인덱스 스캔이 선택된다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductVectorRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<VectorHit> findNearest(float[] query, int k, VectorDistance distance) {
+        String operator = distance.operator();
+        String sql = """
+                select id, embedding %1$s ?::vector as distance
+                from product
+                where embedding is not null
+                order by embedding %1$s ?::vector
+                limit ?
+                """.formatted(operator);
+
+        String vector = PgVectors.toLiteral(query);
+        return jdbcTemplate.query(sql,
+                (rs, rowNum) -> new VectorHit(rs.getLong("id"), rs.getDouble("distance")),
+                vector, vector, k);
+    }
+
+    /**
+     * 2단계 검색. 압축 표현 인덱스로 candidates 개를 뽑고, 그 후보만 원본 벡터로 정확한 거리를 계산해 k 개를 고른다.
+     * 반환하는 distance 는 원본 벡터 기준이다.
+     */
+    public List<VectorHit> findNearest(float[] query, int k, VectorDistance distance,
+                                       VectorQuantization quantization, int candidates) {
+        if (quantization == VectorQuantization.NONE) return findNearest(query, k, distance);
+
+        int dimensions = query.length;
+        String sql = """
+                select id, embedding %1$s ?::vector as distance
+                from (
+                    select id, embedding
+                    from product
+                    where embedding is not null
+                    order by %2$s %3$s %4$s
+                    limit ?
+                ) candidate
+                order by distance
+                limit ?
+                """.formatted(distance.operator(),
+                quantization.expression("embedding", dimensions),
+                quantization.operator(distance),
+                quantization.parameter(dimensions));
+
+        String vector = PgVectors.toLiteral(query);
+        return jdbcTemplate.query(sql,
+                (rs, rowNum) -> new VectorHit(rs.getLong("id"), rs.getDouble("distance")),
+                vector, vector, candidates, k);
+    }
+
+    /**
+     * 여러 쿼리의 KNN 을 한 번의 왕복으로 처리한다. 쿼리 벡터와 k 를 배열로 넘겨 unnest 한 뒤 LATERAL 로 쿼리마다 인덱스 검색한다.
+     * 결과는 queries 와 같은 순서다. quantization 이 NONE 이 아니면 쿼리마다 k * oversample 개 후보를 원본 벡터로 다시 정렬한다.
+     */
+    public List<List<VectorHit>> findNearestBatch(List<VectorQuery> queries, VectorDistance distance,
+                                                  VectorQuantization quantization, int oversample) {
+        if (queries.isEmpty()) return List.of();
+
+        String operator = distance.operator();
+        String nearest = quantization == VectorQuantization.NONE
+                ? """
+                select id, embedding %1$s q.vec as distance
+                from product
+                where embedding is not null
+                order by embedding %1$s q.vec
+                limit q.k
+                """.formatted(operator)
+                : """
+                select id, embedding %1$s q.vec as distance
+                from (
+                    select id, embedding
+                    from product
+                    where embedding is not null
+                    order by %2$s %3$s %4$s
+                    limit q.k * %5$d
+                ) candidate
+                order by distance
+                limit q.k
+                """.formatted(operator,
+                quantization.expression("embedding", queries.getFirst().vector().length),
+                quantization.operator(distance),
+                quantization.convert("q.vec", queries.getFirst().vector().length),
+                oversample);
+
+        String sql = """
+                select q.ord, hit.id, hit.distance
+                from (
+                    select ord, vec::vector as vec, k
+                    from unnest(?::text[], ?::int[]) with ordinality as input(vec, k, ord)
+                ) q
+                cross join lateral (%s) hit
+                order by q.ord, hit.distance
+                """.formatted(nearest);
+
+        String[] vectors = queries.stream().map(query -> PgVectors.toLiteral(query.vector())).toArray(String[]::new);
+        Integer[] ks = queries.stream().map(VectorQuery::k).toArray(Integer[]::new);
+
+        List<List<VectorHit>> results = new ArrayList<>(queries.size());
+        for (int i = 0; i < queries.size(); i++) results.add(new ArrayList<>());
+        jdbcTemplate.query(sql,
+                rs -> {
+                    results.get(rs.getInt("ord") - 1).add(new VectorHit(rs.getLong("id"), rs.getDouble("distance")));
+                },
+                vectors, ks);
+        return results;
+    }
+
+    /**
+     * 인덱스를 쓰지 않는 정확한 KNN. ORDER BY 식이 인덱스 operator 와 달라 순차 스캔된다. 재현율 측정용.
+     */
+    public List<VectorHit> findNearestExact(float[] query, int k, VectorDistance distance) {
+        String sql = """
+                select id, embedding %1$s ?::vector as distance
+                from product
+                where embedding is not null
+                order by (embedding %1$s ?::vector) + 0
+                limit ?
+                """.formatted(distance.operator());
+
+        String vector = PgVectors.toLiteral(query);
+        return jdbcTemplate.query(sql,
+                (rs, rowNum) -> new VectorHit(rs.getLong("id"), rs.getDouble("distance")),
+                vector, vector, k);
+    }
+
+    /**
+     * 재현율 측정에 쿼리로 쓸 임의의 상품 임베딩.
+     */
+    public List<float[]> sampleEmbeddings(int size) {
+        return jdbcTemplate.query("select embedding::text from product where embedding is not null order by random() limit ?",
+                (rs, rowNum) -> PgVectors.parse(rs.getString(1)),
+                size);
+    }
+
+    public Optional<float[]> findEmbedding(Long productId) {
+        return jdbcTemplate.query("select embedding::text from product where id = ? and embedding is not null",
+                        (rs, rowNum) -> PgVectors.parse(rs.getString(1)),
+                        productId)
+                .stream()
+                .findFirst();
+    }
+
+    public Map<Long, float[]> findEmbeddings(Collection<Long> productIds) {
+        Map<Long, float[]> embeddings = new HashMap<>();
+        if (productIds.isEmpty()) return embeddings;
+
+        jdbcTemplate.query("select id, embedding::text from product where id = any(?) and embedding is not null",
+                rs -> {
+                    embeddings.put(rs.getLong(1), PgVectors.parse(rs.getString(2)));
+                },
+                (Object) productIds.toArray(Long[]::new));
+        return embeddings;
+    }
+
+    /**
+     * afterId 다음부터 id 순으로 임베딩이 있는 상품 limit 개.
+     */
+    public Map<Long, float[]> findEmbeddingPage(long afterId, int limit) {
+        Map<Long, float[]> embeddings = new LinkedHashMap<>();
+        jdbcTemplate.query("select id, embedding::text from product where id > ? and embedding is not null order by id limit ?",
+                rs -> {
+                    embeddings.put(rs.getLong(1), PgVectors.parse(rs.getString(2)));
+                },
+                afterId, limit);
+        return embeddings;
+    }
+
+    /**
+     * 임베딩이 있는 모든 상품을 커서로 읽어 consumer 에 넘긴다. 전체를 메모리에 올리지 않는다.
+     */
+    @Transactional(readOnly = true)
+    public void forEachEmbedding(int fetchSize, BiConsumer<Long, float[]> consumer) {
+        jdbcTemplate.query(con -> {
+                    var ps = con.prepareStatement("select id, embedding::text from product where embedding is not null");
+                    ps.setFetchSize(fetchSize);
+                    return ps;
+                },
+                rs -> {
+                    consumer.accept(rs.getLong(1), PgVectors.parse(rs.getString(2)));
+                });
+    }
+}
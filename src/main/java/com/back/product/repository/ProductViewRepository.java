@@ -0,0 +1,88 @@
+package com.back.product.repository;
+
+import com.back.product.dto.CatalogSummary;
+import com.back.product.dto.ProductView;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * ProductView 조회. keywords 는 array_agg 로 묶어 상품 수와 관계없이 쿼리 한 번으로 가져온다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductViewRepository {
+
+    private static final String SELECT_VIEW = """
+            select p.id, p.name, p.embedding_status = 'PENDING' as embedding_pending,
+                   coalesce(array_agg(k.keyword order by k.id) filter (where k.keyword is not null), '{}') as keywords
+            """;
+
+    private static final RowMapper<ProductView> VIEW_MAPPER = (rs, rowNum) -> {
+        Array keywords = rs.getArray("keywords");
+        return new ProductView(
+                rs.getLong("id"),
+                rs.getString("name"),
+                List.of((String[]) keywords.getArray()),
+                null,
+                rs.getBoolean("embedding_pending"));
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Map<Long, ProductView> findByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) return Map.of();
+
+        List<ProductView> views = jdbcTemplate.query(SELECT_VIEW + """
+                        from product p
+                        left join product_keyword k on k.product_id = p.id
+                        where p.id = any(?)
+                        group by p.id, p.name, p.embedding_status
+                        """,
+                VIEW_MAPPER,
+                (Object) ids.toArray(Long[]::new));
+
+        return views.stream().collect(Collectors.toMap(ProductView::id, Function.identity()));
+    }
+
+    public Optional<ProductView> findById(Long id) {
+        return Optional.ofNullable(findByIds(List.of(id)).get(id));
+    }
+
+    /**
+     * afterId 다음부터 id 순으로 limit 개.
+     */
+    public List<ProductView> findPage(Long afterId, int limit) {
+        return jdbcTemplate.query(SELECT_VIEW + """
+                        from (select id, name, embedding_status from product where id > ? order by id limit ?) p
+                        left join product_keyword k on k.product_id = p.id
+                        group by p.id, p.name, p.embedding_status
+                        order by p.id
+                        """,
+                VIEW_MAPPER,
+                afterId == null ? 0L : afterId, limit);
+    }
+
+    /**
+     * 상품 수와, 가장 많은 상품에 붙은 키워드 topKeywords 개.
+     */
+    public CatalogSummary summarize(int topKeywords) {
+        Long count = jdbcTemplate.queryForObject("select count(*) from product", Long.class);
+        List<CatalogSummary.KeywordCount> keywords = jdbcTemplate.query("""
+                        select lower(keyword) as keyword, count(distinct product_id) as products
+                        from product_keyword
+                        group by lower(keyword)
+                        order by products desc, keyword
+                        limit ?
+                        """,
+                (rs, rowNum) -> new CatalogSummary.KeywordCount(rs.getString("keyword"), rs.getLong("products")),
+                topKeywords);
+        return new CatalogSummary(count == null ? 0 : count, keywords);
+    }
+}
@@ -0,0 +1,300 @@
+package com.back.product.search;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * JVM 안에서 동작하는 HNSW(Hierarchical Navigable Small World) 그래프.
+ * <p>
+ * 검색은 읽기 락, 추가/삭제는 쓰기 락으로 보호한다. 삭제(갱신 포함)는 톰스톤으로 처리해 그래프 연결을 유지하고,
+ * 톰스톤이 살아있는 노드 수를 넘으면 그 자리에서 그래프를 다시 만든다. 쓰기 락을 오래 잡지 않으려면
+ * 그 전에 liveVectors() 로 새 인덱스를 따로 만들어 교체한다(HnswVectorSearchEngine 참고).
+ */
+public class HnswIndex {
+
+    private final int m;
+    private final int maxConnectionsLayer0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final VectorDistance distance;
+
+    private final Map<Long, Node> nodes = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Node entryPoint;
+    private int tombstones;
+
+    public HnswIndex(int m, int efConstruction, VectorDistance distance) {
+        this.m = m;
+        this.maxConnectionsLayer0 = m * 2;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(m);
+        this.distance = distance;
+    }
+
+    public void add(Long id, float[] vector) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            insert(new Node(id, vector, randomLevel()));
+            rebuildIfMostlyTombstones();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            rebuildIfMostlyTombstones();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(Long id) {
+        lock.readLock().lock();
+        try {
+            return nodes.containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<float[]> vector(Long id) {
+        lock.readLock().lock();
+        try {
+            Node node = nodes.get(id);
+            return node == null ? Optional.empty() : Optional.of(node.vector);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodes.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 그래프에 남아 있는 삭제된 노드 수.
+     */
+    public int tombstones() {
+        lock.readLock().lock();
+        try {
+            return tombstones;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 살아있는 노드의 벡터 복사본(id → vector). 톰스톤 없이 새 인덱스를 만들 때 쓴다.
+     */
+    public Map<Long, float[]> liveVectors() {
+        lock.readLock().lock();
+        try {
+            Map<Long, float[]> vectors = new LinkedHashMap<>(nodes.size() * 2);
+            nodes.forEach((id, node) -> vectors.put(id, node.vector));
+            return vectors;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * query 와 가장 가까운 살아있는 노드 k 개를 거리 오름차순으로 반환한다.
+     */
+    public List<VectorHit> search(float[] query, int k, int efSearch) {
+        lock.readLock().lock();
+        try {
+            if (entryPoint == null || k <= 0) return List.of();
+
+            Node current = greedyDescend(query, entryPoint, entryPoint.level, 1);
+            // 톰스톤이 결과 자리를 차지할 수 있으므로 그만큼 더 넓게 탐색한다
+            int ef = Math.max(efSearch, k) + Math.min(tombstones, k);
+            PriorityQueue<Candidate> found = searchLayer(query, current, ef, 0);
+
+            List<Candidate> sorted = new ArrayList<>(found);
+            sorted.sort(Comparator.comparingDouble(Candidate::distance));
+
+            List<VectorHit> hits = new ArrayList<>(k);
+            for (Candidate c : sorted) {
+                if (c.node.deleted) continue;
+                hits.add(new VectorHit(c.node.id, c.distance));
+                if (hits.size() == k) break;
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void insert(Node node) {
+        nodes.put(node.id, node);
+
+        if (entryPoint == null) {
+            entryPoint = node;
+            return;
+        }
+
+        Node current = greedyDescend(node.vector, entryPoint, entryPoint.level, node.level + 1);
+
+        for (int level = Math.min(node.level, entryPoint.level); level >= 0; level--) {
+            PriorityQueue<Candidate> candidates = searchLayer(node.vector, current, efConstruction, level);
+            List<Node> neighbors = closest(candidates, m);
+
+            for (Node neighbor : neighbors) {
+                node.neighbors[level].add(neighbor);
+                neighbor.neighbors[level].add(node);
+                shrink(neighbor, level);
+            }
+
+            current = nearest(candidates);
+        }
+
+        if (node.level > entryPoint.level) {
+            entryPoint = node;
+        }
+    }
+
+    private void removeInternal(Long id) {
+        Node node = nodes.remove(id);
+        if (node == null) return;
+
+        node.deleted = true;
+        tombstones++;
+
+        if (nodes.isEmpty()) {
+            entryPoint = null;
+            tombstones = 0;
+        }
+    }
+
+    private void rebuildIfMostlyTombstones() {
+        if (tombstones > nodes.size()) {
+            rebuild();
+        }
+    }
+
+    private void rebuild() {
+        List<Node> live = new ArrayList<>(nodes.values());
+        nodes.clear();
+        entryPoint = null;
+        tombstones = 0;
+
+        for (Node old : live) {
+            insert(new Node(old.id, old.vector, old.level));
+        }
+    }
+
+    private Node greedyDescend(float[] query, Node start, int fromLevel, int toLevel) {
+        Node current = start;
+        double currentDistance = distance.distance(query, current.vector);
+
+        for (int level = fromLevel; level >= toLevel; level--) {
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                for (Node neighbor : current.neighbors[level]) {
+                    double d = distance.distance(query, neighbor.vector);
+                    if (d < currentDistance) {
+                        current = neighbor;
+                        currentDistance = d;
+                        changed = true;
+                    }
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 한 레이어에서 ef 개의 근사 최근접 후보를 찾는다. 반환 큐는 가장 먼 후보가 head 인 max-heap 이다.
+     */
+    private PriorityQueue<Candidate> searchLayer(float[] query, Node start, int ef, int level) {
+        Set<Node> visited = new HashSet<>();
+        PriorityQueue<Candidate> toVisit = new PriorityQueue<>(Comparator.comparingDouble(Candidate::distance));
+        PriorityQueue<Candidate> found = new PriorityQueue<>(Comparator.comparingDouble(Candidate::distance).reversed());
+
+        Candidate first = new Candidate(start, distance.distance(query, start.vector));
+        visited.add(start);
+        toVisit.add(first);
+        found.add(first);
+
+        while (!toVisit.isEmpty()) {
+            Candidate closest = toVisit.poll();
+            if (closest.distance > found.peek().distance && found.size() >= ef) break;
+
+            for (Node neighbor : closest.node.neighbors[level]) {
+                if (!visited.add(neighbor)) continue;
+
+                double d = distance.distance(query, neighbor.vector);
+                if (found.size() < ef || d < found.peek().distance) {
+                    Candidate candidate = new Candidate(neighbor, d);
+                    toVisit.add(candidate);
+                    found.add(candidate);
+                    if (found.size() > ef) found.poll();
+                }
+            }
+        }
+        return found;
+    }
+
+    private void shrink(Node node, int level) {
+        int max = level == 0 ? maxConnectionsLayer0 : m;
+        List<Node> neighbors = node.neighbors[level];
+        if (neighbors.size() <= max) return;
+
+        neighbors.sort(Comparator.comparingDouble(n -> distance.distance(node.vector, n.vector)));
+        neighbors.subList(max, neighbors.size()).clear();
+    }
+
+    private static List<Node> closest(PriorityQueue<Candidate> candidates, int count) {
+        return candidates.stream()
+                .sorted(Comparator.comparingDouble(Candidate::distance))
+                .limit(count)
+                .map(Candidate::node)
+                .toList();
+    }
+
+    private static Node nearest(PriorityQueue<Candidate> candidates) {
+        return candidates.stream()
+                .min(Comparator.comparingDouble(Candidate::distance))
+                .orElseThrow()
+                .node;
+    }
+
+    private int randomLevel() {
+        double r = ThreadLocalRandom.current().nextDouble();
+        return (int) Math.floor(-Math.log(1 - r) * levelMultiplier);
+    }
+
+    private static final class Node {
+        final Long id;
+        final float[] vector;
+        final int level;
+        final List<Node>[] neighbors;
+        boolean deleted;
+
+        @SuppressWarnings("unchecked")
+        Node(Long id, float[] vector, int level) {
+            this.id = id;
+            this.vector = vector;
+            this.level = level;
+            this.neighbors = new List[level + 1];
+            for (int i = 0; i <= level; i++) {
+                neighbors[i] = new ArrayList<>();
+            }
+        }
+    }
+
+    private record Candidate(Node node, double distance) {}
+}
@@ -0,0 +1,209 @@
+package com.back.product.search;
+
+import com.back.embedding.event.EmbeddingVersionChangedEvent;
+import com.back.product.config.ProductSearchProperties;
+import com.back.product.event.ProductChangedEvent;
+import com.back.product.repository.ProductVectorRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * JVM 안의 HNSW 그래프로 검색하는 엔진. app.product.search.engine=hnsw 일 때 기본 엔진을 대체한다.
+ * <p>
+ * 기동 후 백그라운드에서 Postgres 의 임베딩을 읽어 그래프를 만들고, 이후에는 상품 변경 이벤트로 증분 반영한다.
+ * 적재가 끝나기 전까지는 pgvector 엔진으로 검색한다.
+ * 삭제/갱신으로 톰스톤이 쌓이면 살아있는 벡터로 새 그래프를 백그라운드에서 만들어 교체한다(그동안 기존 그래프로 검색).
+ */
+@Slf4j
+@Primary
+@Component
+@ConditionalOnProperty(name = "app.product.search.engine", havingValue = "hnsw")
+public class HnswVectorSearchEngine implements VectorSearchEngine {
+
+    private static final int LOAD_FETCH_SIZE = 1_000;
+    // 톰스톤이 살아있는 노드의 이 비율을 넘으면 압축한다. 작은 그래프는 압축할 이득이 적으므로 최소 개수를 둔다.
+    private static final double COMPACT_TOMBSTONE_RATIO = 0.25;
+    private static final int COMPACT_MIN_TOMBSTONES = 100;
+
+    private final ProductVectorRepository productVectorRepository;
+    private final PgVectorSearchEngine fallback;
+    private final ProductSearchProperties properties;
+    private volatile HnswIndex index;
+
+    private volatile boolean ready;
+    // 적재 중에 이벤트로 반영된 상품. 적재 스냅샷의 오래된 값으로 덮어쓰지 않도록 건너뛴다.
+    private final Set<Long> changedWhileLoading = new HashSet<>();
+    // 압축 중에 반영된 변경(null 이면 삭제). 새 그래프로 교체하기 전에 다시 적용한다. changedWhileLoading 으로 동기화한다.
+    private Map<Long, float[]> changedWhileCompacting;
+    private final AtomicBoolean compacting = new AtomicBoolean();
+
+    public HnswVectorSearchEngine(ProductVectorRepository productVectorRepository,
+                                  PgVectorSearchEngine fallback,
+                                  ProductSearchProperties properties) {
+        this.productVectorRepository = productVectorRepository;
+        this.fallback = fallback;
+        this.properties = properties;
+        this.index = newIndex();
+    }
+
+    /**
+     * 큰 카탈로그에서 기동을 막지 않도록 별도 스레드에서 적재한다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        loadInBackground("hnsw-load");
+    }
+
+    private void loadInBackground(String threadName) {
+        Thread.ofVirtual().name(threadName).start(() -> {
+            try {
+                load();
+            } catch (RuntimeException e) {
+                log.error("HNSW index load failed; searching with pgvector", e);
+            }
+        });
+    }
+
+    public void load() {
+        long started = System.currentTimeMillis();
+        HnswIndex index = this.index;
+
+        productVectorRepository.forEachEmbedding(LOAD_FETCH_SIZE, (id, embedding) -> {
+            synchronized (changedWhileLoading) {
+                if (!changedWhileLoading.contains(id)) index.add(id, embedding);
+            }
+        });
+
+        synchronized (changedWhileLoading) {
+            if (this.index != index) return; // 적재 중에 다시 전환되어 새 적재가 진행 중
+            changedWhileLoading.clear();
+            ready = true;
+        }
+        log.info("HNSW index loaded: {} vectors in {} ms", index.size(), System.currentTimeMillis() - started);
+    }
+
+    /**
+     * 재임베딩 전환 후에는 이전 버전 벡터로 만든 그래프를 버리고 새 컬럼에서 다시 적재한다. 적재 중에는 pgvector 로 검색한다.
+     */
+    @EventListener
+    public void onEmbeddingVersionChanged(EmbeddingVersionChangedEvent event) {
+        synchronized (changedWhileLoading) {
+            ready = false;
+            index = newIndex();
+        }
+        loadInBackground("hnsw-reload");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Map<Long, float[]> embeddings = event.type() == ProductChangedEvent.Type.DELETED
+                ? Map.of()
+                : productVectorRepository.findEmbeddings(event.productIds());
+
+        synchronized (changedWhileLoading) {
+            for (Long id : event.productIds()) {
+                if (!ready) changedWhileLoading.add(id);
+
+                float[] embedding = embeddings.get(id);
+                if (embedding != null) {
+                    index.add(id, embedding);
+                } else {
+                    index.remove(id);
+                }
+                if (changedWhileCompacting != null) changedWhileCompacting.put(id, embedding);
+            }
+        }
+
+        HnswIndex current = index;
+        if (ready && current.tombstones() >= COMPACT_MIN_TOMBSTONES
+                && current.tombstones() > current.size() * COMPACT_TOMBSTONE_RATIO) {
+            compactInBackground();
+        }
+    }
+
+    private void compactInBackground() {
+        if (!compacting.compareAndSet(false, true)) return;
+
+        Thread.ofVirtual().name("hnsw-compact").start(() -> {
+            try {
+                compact();
+            } catch (RuntimeException e) {
+                log.error("HNSW index compaction failed", e);
+            } finally {
+                compacting.set(false);
+            }
+        });
+    }
+
+    /**
+     * 살아있는 벡터만으로 새 그래프를 만들어 교체한다. 만드는 동안 들어온 변경은 기록해 두었다가 교체 직전에 적용한다.
+     */
+    void compact() {
+        long started = System.currentTimeMillis();
+        HnswIndex current;
+        synchronized (changedWhileLoading) {
+            current = index;
+            changedWhileCompacting = new LinkedHashMap<>();
+        }
+        int tombstones = current.tombstones();
+
+        HnswIndex compacted = newIndex();
+        current.liveVectors().forEach(compacted::add);
+
+        synchronized (changedWhileLoading) {
+            Map<Long, float[]> changes = changedWhileCompacting;
+            changedWhileCompacting = null;
+            if (index != current) return; // 압축 중에 재임베딩 전환으로 다시 적재하는 중
+
+            changes.forEach((id, embedding) -> {
+                if (embedding != null) {
+                    compacted.add(id, embedding);
+                } else {
+                    compacted.remove(id);
+                }
+            });
+            index = compacted;
+        }
+        log.info("HNSW index compacted: dropped {} tombstones, {} vectors in {} ms",
+                tombstones, compacted.size(), System.currentTimeMillis() - started);
+    }
+
+    @Override
+    public List<VectorHit> search(float[] query, int k, SearchOptions options) {
+        if (!ready) return fallback.search(query, k, options);
+
+        return index.search(query, k, efSearch(options));
+    }
+
+    @Override
+    public Optional<List<VectorHit>> searchSimilar(Long productId, int k, SearchOptions options) {
+        if (!ready) return fallback.searchSimilar(productId, k, options);
+
+        return index.vector(productId)
+                .map(vector -> index.search(vector, k + 1, efSearch(options)).stream()
+                        .filter(hit -> !hit.id().equals(productId))
+                        .limit(k)
+                        .toList());
+    }
+
+    private HnswIndex newIndex() {
+        return new HnswIndex(properties.index().m(), properties.index().efConstruction(), properties.distance());
+    }
+
+    private int efSearch(SearchOptions options) {
+        return options.efSearch() != null ? options.efSearch() : properties.index().efSearch();
+    }
+}
@@ -0,0 +1,93 @@
+package com.back.product.search;
+
+import com.back.product.config.ProductSearchProperties;
+import com.back.product.config.ProductSearchProperties.Quantization;
+import com.back.product.repository.ProductVectorRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Postgres(pgvector) 인덱스로 검색하는 기본 엔진.
+ * quantization 이 설정되어 있으면 압축 인덱스로 후보를 뽑고 원본 벡터로 다시 정렬한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class PgVectorSearchEngine implements VectorSearchEngine {
+
+    private final ProductVectorRepository productVectorRepository;
+    private final VectorIndexManager vectorIndexManager;
+    private final ProductSearchProperties properties;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<VectorHit> search(float[] query, int k, SearchOptions options) {
+        return nearest(query, k, options);
+    }
+
+    /**
+     * 모든 쿼리를 LATERAL 조인 한 번으로 검색한다.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<List<VectorHit>> searchBatch(List<VectorQuery> queries, SearchOptions options) {
+        if (queries.isEmpty()) return List.of();
+
+        Quantization quantization = properties.quantization();
+        int maxK = queries.stream().mapToInt(VectorQuery::k).max().orElse(0);
+        vectorIndexManager.applySearchOptions(options, quantization.candidates(maxK));
+        return productVectorRepository.findNearestBatch(
+                queries, properties.distance(), quantization.type(), quantization.oversample());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<List<VectorHit>> searchSimilar(Long productId, int k, SearchOptions options) {
+        return productVectorRepository.findEmbedding(productId)
+                .map(embedding -> nearest(embedding, k + 1, options).stream()
+                        .filter(hit -> !hit.id().equals(productId))
+                        .limit(k)
+                        .toList());
+    }
+
+    /**
+     * 임의의 상품 임베딩을 쿼리로 삼아 인덱스 검색 결과가 정확한 KNN 결과를 얼마나 포함하는지(recall@k) 측정한다.
+     * 양자화 / ef_search / probes 설정에 따른 재현율 손실을 확인하는 용도이며 순차 스캔을 하므로 운영 트래픽 중에는 표본을 작게 잡는다.
+     */
+    @Transactional(readOnly = true)
+    public RecallReport measureRecall(int samples, int k, SearchOptions options) {
+        List<float[]> queries = productVectorRepository.sampleEmbeddings(samples);
+
+        double total = 0;
+        for (float[] query : queries) {
+            Set<Long> exact = productVectorRepository.findNearestExact(query, k, properties.distance()).stream()
+                    .map(VectorHit::id)
+                    .collect(Collectors.toSet());
+            if (exact.isEmpty()) continue;
+
+            long found = nearest(query, k, options).stream()
+                    .filter(hit -> exact.contains(hit.id()))
+                    .count();
+            total += (double) found / exact.size();
+        }
+
+        double recall = queries.isEmpty() ? 1.0 : total / queries.size();
+        return new RecallReport(queries.size(), k, properties.quantization().type(), recall);
+    }
+
+    private List<VectorHit> nearest(float[] query, int k, SearchOptions options) {
+        Quantization quantization = properties.quantization();
+        int candidates = quantization.candidates(k);
+
+        // ef_search / probes 는 SET LOCAL 이라 이 트랜잭션의 검색 쿼리에만 적용된다
+        vectorIndexManager.applySearchOptions(options, candidates);
+        return productVectorRepository.findNearest(query, k, properties.distance(), quantization.type(), candidates);
+    }
+
+    public record RecallReport(int samples, int k, VectorQuantization quantization, double recall) {}
+}
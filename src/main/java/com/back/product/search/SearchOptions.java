@@ -0,0 +1,10 @@
+package com.back.product.search;
+
+/**
+ * 요청 단위 ANN 튜닝 값. null 이면 설정 파일의 기본값을 사용한다.
+ * efSearch 는 HNSW, probes 는 IVFFlat 에만 적용되며 값이 클수록 recall 이 오르고 지연이 늘어난다.
+ */
+public record SearchOptions(Integer efSearch, Integer probes) {
+
+    public static final SearchOptions DEFAULT = new SearchOptions(null, null);
+}
@@ -0,0 +1,50 @@
+package com.back.product.search;
+
+import com.back.global.vector.VectorMath;
+
+/**
+ * KNN 검색에 사용하는 거리 함수. 쿼리 연산자와 인덱스 operator class 를 한 곳에서 묶어
+ * 인덱스가 검색 쿼리와 어긋나지 않도록 한다.
+ */
+public enum VectorDistance {
+    EUCLIDEAN("<->", "vector_l2_ops") {
+        @Override
+        public double distance(float[] a, float[] b) {
+            return VectorMath.l2(a, b);
+        }
+    },
+    COSINE("<=>", "vector_cosine_ops") {
+        @Override
+        public double distance(float[] a, float[] b) {
+            return 1.0 - VectorMath.cosine(a, b);
+        }
+    },
+    INNER_PRODUCT("<#>", "vector_ip_ops") {
+        @Override
+        public double distance(float[] a, float[] b) {
+            // pgvector 의 <#> 와 같이 음수 내적을 거리로 사용한다
+            return -VectorMath.dot(a, b);
+        }
+    };
+
+    private final String operator;
+    private final String operatorClass;
+
+    VectorDistance(String operator, String operatorClass) {
+        this.operator = operator;
+        this.operatorClass = operatorClass;
+    }
+
+    public String operator() {
+        return operator;
+    }
+
+    public String operatorClass() {
+        return operatorClass;
+    }
+
+    /**
+     * pgvector 연산자와 같은 값을 JVM 안에서 계산한다.
+     */
+    public abstract double distance(float[] a, float[] b);
+}
@@ -0,0 +1,6 @@
+package com.back.product.search;
+
+/**
+ * 벡터 검색 결과 한 건. distance 는 VectorDistance 기준이며 작을수록 가깝다.
+ */
+public record VectorHit(Long id, double distance) {}
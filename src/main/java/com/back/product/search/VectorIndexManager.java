@@ -0,0 +1,261 @@
+package com.back.product.search;
+
+import com.back.embedding.config.EmbeddingProperties;
+import com.back.product.config.ProductSearchProperties;
+import com.back.product.config.ProductSearchProperties.Index;
+import com.back.product.config.ProductSearchProperties.IndexType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * product.embedding 의 ANN 인덱스(HNSW / IVFFlat)를 애플리케이션이 직접 관리한다.
+ * <p>
+ * 기동 후 백그라운드에서 설정과 실제 인덱스를 비교하고, 다르면 CREATE INDEX CONCURRENTLY 로 새 인덱스를 만든 뒤
+ * 기존 인덱스와 교체한다. 빌드 중에도 쓰기는 막히지 않는다. 인덱스 스펙은 COMMENT 로 남겨 다음 기동 때 비교한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class VectorIndexManager {
+
+    private static final String INDEX_PREFIX = "product_embedding_";
+    private static final String INDEX_NAME = INDEX_PREFIX + "ann_idx";
+    private static final String BUILDING_INDEX_NAME = INDEX_PREFIX + "ann_idx_new";
+    // 교체 직후 지우기 전까지의 이전 인덱스
+    private static final String RETIRED_INDEX_NAME = INDEX_PREFIX + "ann_idx_old";
+    // 재임베딩 섀도 컬럼(embedding_next)의 인덱스. INDEX_PREFIX 와 겹치지 않아야 reconcile 에서 지워지지 않는다.
+    private static final String SHADOW_INDEX_NAME = "product_reembed_ann_idx";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductSearchProperties properties;
+    private final EmbeddingProperties embeddingProperties;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reconcileInBackground();
+    }
+
+    public void reconcileInBackground() {
+        if (properties.index().type() == IndexType.NONE) return;
+
+        Thread.ofVirtual()
+                .name("vector-index-reconcile")
+                .start(() -> {
+                    try {
+                        reconcile();
+                    } catch (RuntimeException e) {
+                        log.error("Vector index reconcile failed", e);
+                    }
+                });
+    }
+
+    /**
+     * 설정된 인덱스가 없거나, 스펙이 다르거나, 이전 빌드가 실패해 INVALID 상태면 다시 만든다.
+     */
+    public synchronized void reconcile() {
+        Index index = properties.index();
+        String spec = spec(index);
+
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            con.setAutoCommit(true); // CONCURRENTLY 는 트랜잭션 안에서 실행할 수 없다
+
+            if (spec.equals(currentSpec(con)) && isValid(con)) {
+                log.info("Vector index is up to date: {}", spec);
+                return null;
+            }
+
+            if (index.type() == IndexType.IVFFLAT && countEmbedded(con) < index.lists()) {
+                // IVFFlat 은 빌드 시점의 데이터로 클러스터를 학습하므로 데이터가 쌓인 뒤에 만든다
+                log.warn("Skipping IVFFlat build: fewer embedded rows than lists ({})", index.lists());
+                return null;
+            }
+
+            try (Statement st = con.createStatement()) {
+                if (index.maintenanceWorkMem() != null) {
+                    st.execute("set maintenance_work_mem = '" + index.maintenanceWorkMem().replace("'", "") + "'");
+                }
+
+                log.info("Building vector index: {}", spec);
+                st.execute("drop index concurrently if exists " + BUILDING_INDEX_NAME);
+                st.execute(createIndexSql(BUILDING_INDEX_NAME, "embedding", index));
+                st.execute("comment on index " + BUILDING_INDEX_NAME + " is '" + spec + "'");
+
+                // 새 인덱스를 먼저 제자리에 올린 뒤 이전 인덱스를 지워 ANN 인덱스가 없는 구간이 생기지 않게 한다
+                st.execute("drop index concurrently if exists " + RETIRED_INDEX_NAME);
+                swapIn(con, st);
+                for (String stale : managedIndexes(con)) {
+                    if (!stale.equals(INDEX_NAME)) {
+                        st.execute("drop index concurrently if exists " + stale);
+                    }
+                }
+            } finally {
+                // 세션 설정은 풀로 돌아간 커넥션에 남으므로 빌드가 실패해도 되돌린다
+                if (index.maintenanceWorkMem() != null) {
+                    try (Statement st = con.createStatement()) {
+                        st.execute("reset maintenance_work_mem");
+                    }
+                }
+            }
+            log.info("Vector index ready: {}", spec);
+            return null;
+        });
+    }
+
+    /**
+     * 기존 인덱스를 RETIRED_INDEX_NAME 으로 물리고 새 인덱스를 INDEX_NAME 으로 올린다. 이름 변경만 하므로 잠금은 짧다.
+     */
+    private void swapIn(Connection con, Statement st) throws SQLException {
+        con.setAutoCommit(false);
+        try {
+            st.execute("alter index if exists " + INDEX_NAME + " rename to " + RETIRED_INDEX_NAME);
+            st.execute("alter index " + BUILDING_INDEX_NAME + " rename to " + INDEX_NAME);
+            con.commit();
+        } catch (SQLException e) {
+            con.rollback();
+            throw e;
+        } finally {
+            con.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * 재임베딩 섀도 컬럼에 현재 설정과 같은 스펙의 인덱스를 미리 만든다. 전환 시 promoteShadowIndex 로 교체한다.
+     * IVFFlat 인데 데이터가 부족하면 만들지 않으며, 이 경우 전환 후 reconcile 이 다시 만든다.
+     */
+    public synchronized void buildShadowIndex() {
+        Index index = properties.index();
+        if (index.type() == IndexType.NONE) return;
+
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            con.setAutoCommit(true);
+
+            if (index.type() == IndexType.IVFFLAT && countEmbedded(con) < index.lists()) {
+                log.warn("Skipping shadow IVFFlat build: fewer embedded rows than lists ({})", index.lists());
+                return null;
+            }
+
+            try (Statement st = con.createStatement()) {
+                log.info("Building shadow vector index: {}", spec(index));
+                st.execute("drop index concurrently if exists " + SHADOW_INDEX_NAME);
+                st.execute(createIndexSql(SHADOW_INDEX_NAME, "embedding_next", index));
+                st.execute("comment on index " + SHADOW_INDEX_NAME + " is '" + spec(index) + "'");
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 섀도 인덱스를 기본 인덱스 이름으로 올린다. 컬럼 교체와 같은 트랜잭션 안에서 호출해야 한다.
+     *
+     * @return 섀도 인덱스가 있었는지. 없었다면 기본 인덱스가 없는 상태이므로 reconcile 이 필요하다.
+     */
+    public boolean promoteShadowIndex() {
+        jdbcTemplate.execute("drop index if exists " + INDEX_NAME);
+        Boolean exists = jdbcTemplate.queryForObject("select to_regclass(?) is not null", Boolean.class, SHADOW_INDEX_NAME);
+        if (Boolean.TRUE.equals(exists)) {
+            jdbcTemplate.execute("alter index " + SHADOW_INDEX_NAME + " rename to " + INDEX_NAME);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 현재 트랜잭션에만 적용되는 ef_search / probes 를 설정한다. 트랜잭션 밖에서는 아무것도 하지 않는다.
+     * HNSW 는 ef_search 개까지만 반환하므로 limit 보다 작으면 limit 으로 올린다.
+     */
+    public void applySearchOptions(SearchOptions options, int limit) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) return;
+
+        Index index = properties.index();
+        switch (index.type()) {
+            case HNSW -> setLocal("hnsw.ef_search",
+                    Math.max(limit, options.efSearch() != null ? options.efSearch() : index.efSearch()));
+            case IVFFLAT -> setLocal("ivfflat.probes",
+                    options.probes() != null ? options.probes() : index.probes());
+            case NONE -> {
+            }
+        }
+    }
+
+    private void setLocal(String name, int value) {
+        jdbcTemplate.queryForObject("select set_config(?, ?, true)", String.class, name, String.valueOf(value));
+    }
+
+    private String createIndexSql(String name, String column, Index index) {
+        VectorQuantization quantization = properties.quantization().type();
+        String expression = quantization.expression(column, embeddingProperties.dimensions());
+        String operatorClass = quantization.operatorClass(properties.distance());
+        return switch (index.type()) {
+            case HNSW -> "create index concurrently %s on product using hnsw (%s %s) with (m = %d, ef_construction = %d)"
+                    .formatted(name, expression, operatorClass, index.m(), index.efConstruction());
+            case IVFFLAT -> "create index concurrently %s on product using ivfflat (%s %s) with (lists = %d)"
+                    .formatted(name, expression, operatorClass, index.lists());
+            case NONE -> throw new IllegalStateException("No index type configured");
+        };
+    }
+
+    private String spec(Index index) {
+        VectorQuantization quantization = properties.quantization().type();
+        String operatorClass = quantization.operatorClass(properties.distance());
+        String spec = switch (index.type()) {
+            case HNSW -> "hnsw %s m=%d ef_construction=%d".formatted(operatorClass, index.m(), index.efConstruction());
+            case IVFFLAT -> "ivfflat %s lists=%d".formatted(operatorClass, index.lists());
+            case NONE -> "none";
+        };
+        return quantization == VectorQuantization.NONE ? spec : spec + " " + quantization.name().toLowerCase();
+    }
+
+    private String currentSpec(Connection con) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(
+                "select obj_description(to_regclass(?), 'pg_class')")) {
+            ps.setString(1, INDEX_NAME);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    private boolean isValid(Connection con) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(
+                "select indisvalid from pg_index where indexrelid = to_regclass(?)")) {
+            ps.setString(1, INDEX_NAME);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private long countEmbedded(Connection con) throws SQLException {
+        try (Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery("select count(*) from product where embedding is not null")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private List<String> managedIndexes(Connection con) throws SQLException {
+        List<String> names = new ArrayList<>();
+        try (PreparedStatement ps = con.prepareStatement(
+                "select indexname from pg_indexes where tablename = 'product' and indexname like ?")) {
+            ps.setString(1, INDEX_PREFIX + "%");
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) names.add(rs.getString(1));
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,54 @@
+package com.back.product.search;
+
+/**
+ * ANN 인덱스에 저장하는 벡터 표현. 원본 vector 컬럼은 그대로 두고 표현식 인덱스로만 압축하므로 쓰기 경로는 바뀌지 않는다.
+ * <p>
+ * NONE: float32 원본, HALFVEC: float16 (인덱스 크기 1/2), BINARY: 차원당 1비트 (1/32, 해밍 거리).
+ * 압축 표현으로 후보를 넉넉히 뽑은 뒤 원본 벡터로 정확한 거리를 다시 계산해 순위를 매긴다.
+ */
+public enum VectorQuantization {
+    NONE,
+    HALFVEC,
+    BINARY;
+
+    /**
+     * 인덱스와 ORDER BY 에 쓰는 컬럼 표현식. 인덱스 스캔이 선택되려면 두 곳이 같아야 한다.
+     */
+    public String expression(String column, int dimensions) {
+        return switch (this) {
+            case NONE -> column;
+            case HALFVEC -> "(%s::halfvec(%d))".formatted(column, dimensions);
+            case BINARY -> "(binary_quantize(%s)::bit(%d))".formatted(column, dimensions);
+        };
+    }
+
+    /**
+     * 쿼리 벡터 파라미터(?)를 같은 표현으로 바꾸는 식.
+     */
+    public String parameter(int dimensions) {
+        return convert("?::vector", dimensions);
+    }
+
+    /**
+     * vector 타입 식을 같은 표현으로 바꾸는 식.
+     */
+    public String convert(String vectorExpression, int dimensions) {
+        return switch (this) {
+            case NONE -> vectorExpression;
+            case HALFVEC -> "(%s)::halfvec(%d)".formatted(vectorExpression, dimensions);
+            case BINARY -> "binary_quantize(%s)::bit(%d)".formatted(vectorExpression, dimensions);
+        };
+    }
+
+    public String operator(VectorDistance distance) {
+        return this == BINARY ? "<~>" : distance.operator();
+    }
+
+    public String operatorClass(VectorDistance distance) {
+        return switch (this) {
+            case NONE -> distance.operatorClass();
+            case HALFVEC -> distance.operatorClass().replace("vector_", "halfvec_");
+            case BINARY -> "bit_hamming_ops";
+        };
+    }
+}
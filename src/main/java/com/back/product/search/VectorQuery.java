@@ -0,0 +1,7 @@
+package com.back.product.search;
+
+/**
+ * 배치 검색의 쿼리 하나.
+ */
+public record VectorQuery(float[] vector, int k) {
+}
@@ -0,0 +1,28 @@
+package com.back.product.search;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 상품 벡터 KNN 검색 엔진. 결과는 상품 id 와 거리만 담으며, 엔티티 조회는 호출하는 쪽에서 한다.
+ */
+public interface VectorSearchEngine {
+
+    List<VectorHit> search(float[] query, int k, SearchOptions options);
+
+    /**
+     * 여러 쿼리를 한 번에 검색한다. 결과는 queries 와 같은 순서다.
+     * 기본 구현은 하나씩 검색하며, 왕복 비용이 큰 엔진은 한 번에 처리하도록 재정의한다.
+     */
+    default List<List<VectorHit>> searchBatch(List<VectorQuery> queries, SearchOptions options) {
+        return queries.stream()
+                .map(query -> search(query.vector(), query.k(), options))
+                .toList();
+    }
+
+    /**
+     * productId 의 저장된 임베딩을 기준으로 자기 자신을 제외한 k 개를 찾는다.
+     * 엔진이 해당 상품의 벡터를 모르면(존재하지 않거나 임베딩이 없음) empty 를 반환한다.
+     */
+    Optional<List<VectorHit>> searchSimilar(Long productId, int k, SearchOptions options);
+}
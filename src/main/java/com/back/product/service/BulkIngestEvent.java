@@ -0,0 +1,25 @@
+package com.back.product.service;
+
+/**
+ * 대량 적재 진행 상황. NDJSON 응답의 한 줄씩으로 내려간다.
+ */
+public sealed interface BulkIngestEvent {
+
+    record Progress(String type, long processed, long inserted, long failed) implements BulkIngestEvent {
+        public Progress(long processed, long inserted, long failed) {
+            this("progress", processed, inserted, failed);
+        }
+    }
+
+    record RowError(String type, long line, String message) implements BulkIngestEvent {
+        public RowError(long line, String message) {
+            this("error", line, message);
+        }
+    }
+
+    record Summary(String type, long processed, long inserted, long failed, long elapsedMillis) implements BulkIngestEvent {
+        public Summary(long processed, long inserted, long failed, long elapsedMillis) {
+            this("summary", processed, inserted, failed, elapsedMillis);
+        }
+    }
+}
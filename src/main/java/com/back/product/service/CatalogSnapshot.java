@@ -0,0 +1,155 @@
+package com.back.product.service;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 카탈로그 스냅샷 바이너리 포맷. 상품 이름, 키워드, 미리 계산된 임베딩을 담는다.
+ * <pre>
+ * header : magic(int) version(short) embeddingModel(UTF) dimensions(int)
+ * record : 1(byte) name(UTF) keywordCount(int) keyword(UTF)... hasEmbedding(byte) [float * dimensions]
+ * footer : 0(byte) recordCount(long)
+ * </pre>
+ * 임베딩은 텍스트로 바꾸지 않고 big-endian float 블록으로 그대로 쓴다. 읽기/쓰기 모두 한 레코드씩 스트리밍한다.
+ */
+public final class CatalogSnapshot {
+
+    static final int MAGIC = 0x50534E50; // "PSNP"
+    static final short VERSION = 1;
+
+    private static final byte RECORD = 1;
+    private static final byte END = 0;
+
+    private CatalogSnapshot() {
+    }
+
+    public record Header(String embeddingModel, int dimensions) {
+        public Header {
+            if (embeddingModel == null || embeddingModel.isBlank()) throw new IllegalArgumentException("embeddingModel is required");
+            if (dimensions <= 0) throw new IllegalArgumentException("dimensions must be positive");
+        }
+    }
+
+    /**
+     * @param embedding 없으면 null. 있으면 길이가 헤더의 dimensions 와 같아야 한다.
+     */
+    public record Entry(String name, List<String> keywords, float[] embedding) {}
+
+    public static final class Writer implements Closeable {
+
+        private final DataOutputStream out;
+        private final Header header;
+        private final byte[] vectorBuffer;
+        private long count;
+
+        public Writer(OutputStream out, Header header) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(out, 64 * 1024));
+            this.header = header;
+            this.vectorBuffer = new byte[header.dimensions() * Float.BYTES];
+
+            this.out.writeInt(MAGIC);
+            this.out.writeShort(VERSION);
+            this.out.writeUTF(header.embeddingModel());
+            this.out.writeInt(header.dimensions());
+        }
+
+        public void write(Entry entry) throws IOException {
+            out.writeByte(RECORD);
+            out.writeUTF(entry.name());
+            out.writeInt(entry.keywords().size());
+            for (String keyword : entry.keywords()) {
+                out.writeUTF(keyword);
+            }
+
+            if (entry.embedding() == null) {
+                out.writeByte(0);
+            } else {
+                if (entry.embedding().length != header.dimensions()) {
+                    throw new IllegalArgumentException("embedding has %d dimensions, expected %d"
+                            .formatted(entry.embedding().length, header.dimensions()));
+                }
+                out.writeByte(1);
+                ByteBuffer.wrap(vectorBuffer).asFloatBuffer().put(entry.embedding());
+                out.write(vectorBuffer);
+            }
+            count++;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        /**
+         * 푸터를 쓰고 버퍼를 비운다. 밑의 스트림은 닫지 않는다(응답 스트림은 컨테이너가 닫는다).
+         */
+        @Override
+        public void close() throws IOException {
+            out.writeByte(END);
+            out.writeLong(count);
+            out.flush();
+        }
+    }
+
+    public static final class Reader {
+
+        private final DataInputStream in;
+        private final Header header;
+        private final byte[] vectorBuffer;
+        private long count;
+        private boolean finished;
+
+        public Reader(InputStream in) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(in, 64 * 1024));
+
+            if (this.in.readInt() != MAGIC) throw new IllegalArgumentException("not a catalog snapshot");
+            short version = this.in.readShort();
+            if (version != VERSION) throw new IllegalArgumentException("unsupported snapshot version: " + version);
+
+            this.header = new Header(this.in.readUTF(), this.in.readInt());
+            this.vectorBuffer = new byte[header.dimensions() * Float.BYTES];
+        }
+
+        public Header header() {
+            return header;
+        }
+
+        /**
+         * @return 다음 레코드. 끝이면 null
+         * @throws EOFException 푸터 없이 스트림이 끝난 경우(잘린 파일)
+         */
+        public Entry next() throws IOException {
+            if (finished) return null;
+
+            byte tag = in.readByte();
+            if (tag == END) {
+                long expected = in.readLong();
+                if (expected != count) {
+                    throw new IllegalArgumentException("snapshot has %d records, footer says %d".formatted(count, expected));
+                }
+                finished = true;
+                return null;
+            }
+            if (tag != RECORD) throw new IllegalArgumentException("corrupt snapshot: unexpected tag " + tag);
+
+            String name = in.readUTF();
+            int keywordCount = in.readInt();
+            if (keywordCount < 0) throw new IllegalArgumentException("corrupt snapshot: negative keyword count");
+            List<String> keywords = new ArrayList<>(keywordCount);
+            for (int i = 0; i < keywordCount; i++) {
+                keywords.add(in.readUTF());
+            }
+
+            float[] embedding = null;
+            if (in.readByte() != 0) {
+                in.readFully(vectorBuffer);
+                embedding = new float[header.dimensions()];
+                ByteBuffer.wrap(vectorBuffer).asFloatBuffer().get(embedding);
+            }
+
+            count++;
+            return new Entry(name, List.copyOf(keywords), embedding);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.back.product.service;
+
+import com.back.product.config.ProductChatProperties;
+import com.back.product.dto.CatalogSummary;
+import com.back.product.event.ProductChangedEvent;
+import com.back.product.repository.ProductViewRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 카탈로그 요약을 미리 계산해 둔다. 상품이 바뀌면 표시만 해 두고 다음 조회 때 한 번 다시 만든다.
+ */
+@Service
+public class CatalogSummaryService {
+
+    private final ProductViewRepository productViewRepository;
+    private final int topKeywords;
+
+    private volatile CatalogSummary summary;
+    private volatile boolean stale = true;
+
+    public CatalogSummaryService(ProductViewRepository productViewRepository, ProductChatProperties properties) {
+        this.productViewRepository = productViewRepository;
+        this.topKeywords = properties.budget().summaryKeywords();
+    }
+
+    public CatalogSummary summary() {
+        if (!stale) return summary;
+
+        synchronized (this) {
+            if (stale) {
+                // 다시 만드는 도중 변경이 들어오면 stale 이 다시 true 가 되어 다음 조회 때 또 만든다
+                stale = false;
+                try {
+                    summary = productViewRepository.summarize(topKeywords);
+                } catch (RuntimeException e) {
+                    // 실패하면 이전 요약을 최신으로 취급하지 않도록 다음 조회 때 다시 만든다
+                    stale = true;
+                    throw e;
+                }
+            }
+            return summary;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        stale = true;
+    }
+}
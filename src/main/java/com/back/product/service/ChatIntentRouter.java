@@ -0,0 +1,163 @@
+package com.back.product.service;
+
+import com.back.embedding.config.EmbeddingVersion;
+import com.back.embedding.service.EmbeddingClient;
+import com.back.embedding.service.EmbeddingVersions;
+import com.back.global.bulkhead.BulkheadFullException;
+import com.back.global.vector.VectorMath;
+import com.back.product.config.ProductChatProperties;
+import com.back.product.dto.ProductView;
+import com.back.product.search.SearchOptions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 채팅 질문의 의도를 임베딩으로 분류한다.
+ * <p>
+ * 단순 조회("노트북 보여줘")는 모델을 부르지 않고 KNN 검색 결과를 템플릿 문장으로 바로 답하고,
+ * 추천 이유나 비교처럼 열린 질문만 채팅 모델로 보낸다. 예시 문장 임베딩은 임베딩 버전마다 한 번 만든다.
+ */
+@Slf4j
+@Component
+public class ChatIntentRouter {
+
+    private static final List<String> DEFAULT_LOOKUP_EXAMPLES = List.of(
+            "노트북 보여줘",
+            "게이밍 마우스 찾아줘",
+            "커피 관련 상품 있어?",
+            "러닝화 검색해줘",
+            "무선 이어폰 목록",
+            "show me laptops",
+            "find running shoes",
+            "do you have wireless headphones",
+            "search for coffee products"
+    );
+
+    private static final List<String> DEFAULT_OPEN_EXAMPLES = List.of(
+            "프로그래밍용 노트북을 추천하고 이유도 설명해줘",
+            "이 두 상품의 차이가 뭐야?",
+            "부모님 선물로 뭐가 좋을까?",
+            "예산 100만원으로 홈오피스를 꾸미려면 뭘 사야 해?",
+            "안녕하세요",
+            "which one is better for a beginner and why?",
+            "compare these two products",
+            "help me plan a home gym on a budget"
+    );
+
+    private final EmbeddingClient embeddingClient;
+    private final EmbeddingVersions embeddingVersions;
+    private final ProductService productService;
+    private final ProductChatProperties.Router properties;
+    private final List<String> lookupExamples;
+    private final List<String> openExamples;
+
+    private final Counter lookups;
+    private final Counter openQuestions;
+
+    private volatile Prototypes prototypes;
+
+    public ChatIntentRouter(EmbeddingClient embeddingClient,
+                            EmbeddingVersions embeddingVersions,
+                            ProductService productService,
+                            ProductChatProperties properties,
+                            MeterRegistry meterRegistry) {
+        this.embeddingClient = embeddingClient;
+        this.embeddingVersions = embeddingVersions;
+        this.productService = productService;
+        this.properties = properties.router();
+        this.lookupExamples = this.properties.lookupExamples().isEmpty() ? DEFAULT_LOOKUP_EXAMPLES : this.properties.lookupExamples();
+        this.openExamples = this.properties.openExamples().isEmpty() ? DEFAULT_OPEN_EXAMPLES : this.properties.openExamples();
+
+        this.lookups = Counter.builder("product.chat.intent").tag("intent", "lookup")
+                .description("의도 분류 결과별 채팅 수")
+                .register(meterRegistry);
+        this.openQuestions = Counter.builder("product.chat.intent").tag("intent", "open")
+                .description("의도 분류 결과별 채팅 수")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 조회 의도면 템플릿 답변을, 아니면 empty 를 반환한다. 분류나 검색 중 예외가 나도 empty 를 반환해 채팅 모델에 맡긴다.
+     *
+     * @param queryVector 이미 임베딩한 질문 벡터. null 이면 여기서 임베딩한다.
+     */
+    public Optional<String> route(String message, float[] queryVector) {
+        if (!properties.enabled()) return Optional.empty();
+
+        try {
+            EmbeddingVersion version = embeddingVersions.active();
+            float[] query = queryVector != null ? queryVector : embeddingClient.embed(List.of(message), version).getFirst();
+
+            if (!isLookup(query, prototypes(version))) {
+                openQuestions.increment();
+                return Optional.empty();
+            }
+
+            lookups.increment();
+            List<ProductView> products = productService.searchViews(query, properties.k(), SearchOptions.DEFAULT);
+            return Optional.of(answer(message, products));
+        } catch (BulkheadFullException e) {
+            // 분류하지 못하면 채팅 모델이 처리하게 둔다
+            log.debug("Skipping intent routing: {}", e.getMessage());
+            return Optional.empty();
+        } catch (RuntimeException e) {
+            // 임베딩 모델 오류, 검색 실패 등. 라우터는 최적화일 뿐이므로 채팅을 실패시키지 않는다
+            log.warn("Intent routing failed, falling back to the chat model", e);
+            return Optional.empty();
+        }
+    }
+
+    private boolean isLookup(float[] query, Prototypes prototypes) {
+        double lookup = maxSimilarity(query, prototypes.lookup());
+        double open = maxSimilarity(query, prototypes.open());
+        return lookup >= properties.threshold() && lookup - open >= properties.margin();
+    }
+
+    private static double maxSimilarity(float[] query, List<float[]> examples) {
+        double max = -1;
+        for (float[] example : examples) {
+            max = Math.max(max, VectorMath.cosine(query, example));
+        }
+        return max;
+    }
+
+    private Prototypes prototypes(EmbeddingVersion version) {
+        Prototypes current = prototypes;
+        if (current != null && current.version().equals(version.key())) return current;
+
+        List<String> examples = new ArrayList<>(lookupExamples);
+        examples.addAll(openExamples);
+        List<float[]> embeddings = embeddingClient.embed(examples, version);
+
+        current = new Prototypes(
+                version.key(),
+                embeddings.subList(0, lookupExamples.size()),
+                embeddings.subList(lookupExamples.size(), embeddings.size()));
+        prototypes = current;
+        return current;
+    }
+
+    static String answer(String message, List<ProductView> products) {
+        if (products.isEmpty()) {
+            return "'%s'와(과) 관련된 상품을 찾지 못했습니다. 다른 검색어로 다시 시도해 주세요.".formatted(message.strip());
+        }
+
+        StringBuilder answer = new StringBuilder("'%s'에 대한 검색 결과입니다.\n".formatted(message.strip()));
+        for (int i = 0; i < products.size(); i++) {
+            ProductView product = products.get(i);
+            answer.append("\n%d. %s".formatted(i + 1, product.name()));
+            if (!product.keywords().isEmpty()) {
+                answer.append(" (").append(String.join(", ", product.keywords())).append(")");
+            }
+        }
+        return answer.toString();
+    }
+
+    private record Prototypes(String version, List<float[]> lookup, List<float[]> open) {}
+}
@@ -0,0 +1,180 @@
+package com.back.product.service;
+
+import com.back.embedding.config.EmbeddingVersion;
+import com.back.embedding.event.EmbeddingVersionChangedEvent;
+import com.back.embedding.service.EmbeddingClient;
+import com.back.embedding.service.EmbeddingVersions;
+import com.back.global.bulkhead.BulkheadFullException;
+import com.back.global.cache.LruCache;
+import com.back.global.vector.VectorMath;
+import com.back.product.config.ProductChatProperties;
+import com.back.product.config.ProductChatProperties.Mode;
+import com.back.product.event.ProductChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 채팅 응답의 의미 기반 캐시.
+ * <p>
+ * 질문을 정규화해 같은 문장이면 바로 돌려주고, 아니면 질문을 임베딩해 저장된 질문들과 코사인 유사도를 비교한다.
+ * 가장 비슷한 질문이 임계값 이상이면 그 답변을 재사용한다. 항목 수가 작으므로(maxSize) 전수 비교한다.
+ * 모드(TOOLS / RETRIEVE)마다 답변을 만드는 방식이 다르므로 같은 모드로 만든 답변만 재사용한다.
+ * 상품이 바뀌거나 임베딩 버전이 바뀌면 전체를 무효화한다.
+ */
+@Slf4j
+@Component
+public class ChatResponseCache {
+
+    private final EmbeddingClient embeddingClient;
+    private final EmbeddingVersions embeddingVersions;
+    private final ProductChatProperties.Cache properties;
+    private final LruCache<String, Entry> cache;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer hitLatency;
+    private final Timer missLatency;
+
+    // 무효화 세대. 답변을 만드는 도중 카탈로그가 바뀌었다면 그 답변은 캐시에 넣지 않는다.
+    private long generation;
+
+    public ChatResponseCache(EmbeddingClient embeddingClient,
+                             EmbeddingVersions embeddingVersions,
+                             ProductChatProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.embeddingClient = embeddingClient;
+        this.embeddingVersions = embeddingVersions;
+        this.properties = properties.cache();
+        this.cache = new LruCache<>(this.properties.maxSize(), this.properties.ttl());
+
+        this.hits = Counter.builder("product.chat.cache.requests").tag("result", "hit")
+                .description("의미 기반 채팅 캐시 조회 수")
+                .register(meterRegistry);
+        this.misses = Counter.builder("product.chat.cache.requests").tag("result", "miss")
+                .description("의미 기반 채팅 캐시 조회 수")
+                .register(meterRegistry);
+        this.hitLatency = Timer.builder("product.chat.latency").tag("cache", "hit")
+                .description("채팅 응답 시간")
+                .register(meterRegistry);
+        this.missLatency = Timer.builder("product.chat.latency").tag("cache", "miss")
+                .description("채팅 응답 시간")
+                .register(meterRegistry);
+        Gauge.builder("product.chat.cache.size", cache, LruCache::size)
+                .description("의미 기반 채팅 캐시 항목 수")
+                .register(meterRegistry);
+    }
+
+    public String get(String message, Mode mode, Supplier<String> loader) {
+        return get(message, mode, query -> loader.get());
+    }
+
+    /**
+     * loader 는 캐시 조회에 쓴 질문 임베딩을 받는다(캐시가 꺼져 있거나 임베딩하지 못했으면 null). 검색에 재사용할 수 있다.
+     */
+    public String get(String message, Mode mode, Function<float[], String> loader) {
+        if (!properties.enabled()) return loader.apply(null);
+
+        long started = System.nanoTime();
+        String normalized = normalize(message);
+        String key = mode.name() + ":" + normalized;
+        long startedAt = currentGeneration();
+
+        Entry exact = cache.get(key);
+        if (exact != null) return hit(exact, started);
+
+        EmbeddingVersion version = embeddingVersions.active();
+        float[] query = embed(normalized, version);
+        if (query != null) {
+            Entry similar = findSimilar(query, version, mode);
+            if (similar != null) return hit(similar, started);
+        }
+
+        misses.increment();
+        String answer = loader.apply(query);
+        if (query != null && answer != null) {
+            putIfCurrent(key, new Entry(query, version.key(), mode, answer), startedAt);
+        }
+        missLatency.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        return answer;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidateAll();
+    }
+
+    @EventListener
+    public void onEmbeddingVersionChanged(EmbeddingVersionChangedEvent event) {
+        invalidateAll();
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        cache.clear();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    private String hit(Entry entry, long started) {
+        hits.increment();
+        hitLatency.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        return entry.answer();
+    }
+
+    private Entry findSimilar(float[] query, EmbeddingVersion version, Mode mode) {
+        Entry best = null;
+        double bestScore = properties.similarityThreshold();
+        for (Entry entry : cache.values()) {
+            if (entry.mode() != mode || !entry.model().equals(version.key())) continue;
+
+            double score = VectorMath.cosine(query, entry.embedding());
+            if (score >= bestScore) {
+                best = entry;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 임베딩 격벽이 가득 차면 캐시를 건너뛰고 바로 모델에 묻는다.
+     */
+    private float[] embed(String message, EmbeddingVersion version) {
+        try {
+            return embeddingClient.embed(List.of(message), version).getFirst();
+        } catch (BulkheadFullException e) {
+            log.debug("Skipping chat cache lookup: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private synchronized long currentGeneration() {
+        return generation;
+    }
+
+    private synchronized void putIfCurrent(String key, Entry entry, long startedAt) {
+        if (generation == startedAt) {
+            cache.put(key, entry);
+        }
+    }
+
+    private static String normalize(String message) {
+        return message.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private record Entry(float[] embedding, String model, Mode mode, String answer) {}
+}
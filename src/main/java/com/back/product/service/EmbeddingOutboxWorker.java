@@ -0,0 +1,118 @@
+package com.back.product.service;
+
+import com.back.embedding.config.EmbeddingVersion;
+import com.back.embedding.service.EmbeddingVersions;
+import com.back.embedding.service.KeywordEmbeddingService;
+import com.back.product.config.ProductEmbeddingProperties;
+import com.back.product.event.ProductChangedEvent;
+import com.back.product.repository.EmbeddingOutboxQueue;
+import com.back.product.repository.EmbeddingOutboxQueue.Claimed;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * embedding_outbox 를 비우는 백그라운드 워커. app.product.embedding.mode=async 일 때만 동작한다.
+ * <p>
+ * 항목을 batchSize 만큼 가져가(리스) 키워드를 한 번에 임베딩하고, 상품 임베딩을 채운 뒤 항목을 지운다.
+ * 실패하면 항목을 그대로 두므로 리스가 끝난 뒤 다시 시도된다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.product.embedding.mode", havingValue = "async")
+public class EmbeddingOutboxWorker {
+
+    private final EmbeddingOutboxQueue queue;
+    private final KeywordEmbeddingService keywordEmbeddingService;
+    private final EmbeddingVersions embeddingVersions;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductEmbeddingProperties properties;
+
+    private final AtomicLong depth = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public EmbeddingOutboxWorker(EmbeddingOutboxQueue queue,
+                                 KeywordEmbeddingService keywordEmbeddingService,
+                                 EmbeddingVersions embeddingVersions,
+                                 ApplicationEventPublisher eventPublisher,
+                                 ProductEmbeddingProperties properties,
+                                 MeterRegistry meterRegistry) {
+        this.queue = queue;
+        this.keywordEmbeddingService = keywordEmbeddingService;
+        this.embeddingVersions = embeddingVersions;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+
+        Gauge.builder("product.embedding.outbox.depth", depth, AtomicLong::get)
+                .description("임베딩 대기 중인 아웃박스 항목 수")
+                .register(meterRegistry);
+        Gauge.builder("product.embedding.outbox.lag", lagMillis, value -> value.get() / 1000.0)
+                .description("가장 오래 기다린 아웃박스 항목의 대기 시간")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.product.embedding.poll-interval:1s}")
+    public void poll() {
+        try {
+            // 쌓여 있는 만큼 연달아 처리하고, 비면 다음 주기까지 쉰다
+            int drained;
+            do {
+                drained = drain();
+            } while (drained == properties.batchSize());
+        } catch (RuntimeException e) {
+            log.warn("Embedding outbox batch failed; will retry after lease expires", e);
+        } finally {
+            EmbeddingOutboxQueue.Stats stats = queue.stats();
+            depth.set(stats.depth());
+            lagMillis.set((long) (stats.lagSeconds() * 1000));
+        }
+    }
+
+    /**
+     * 한 배치를 처리하고 가져간 항목 수를 반환한다.
+     */
+    int drain() {
+        List<Claimed> claimed = queue.claim(properties.batchSize(), properties.lease());
+        if (claimed.isEmpty()) return 0;
+
+        // 같은 상품이 여러 번 쌓였어도 한 번만 임베딩한다 (키워드는 가져갈 때 읽은 현재 값)
+        Map<Long, List<String>> keywordsByProduct = new LinkedHashMap<>();
+        for (Claimed c : claimed) keywordsByProduct.put(c.productId(), c.keywords());
+
+        List<String> distinct = keywordsByProduct.values().stream()
+                .flatMap(List::stream)
+                .distinct()
+                .toList();
+
+        EmbeddingVersion version = embeddingVersions.active();
+        Map<String, float[]> vectors = new HashMap<>();
+        if (!distinct.isEmpty()) {
+            List<float[]> embeddings = keywordEmbeddingService.embed(distinct, version);
+            for (int i = 0; i < distinct.size(); i++) {
+                vectors.put(distinct.get(i), embeddings.get(i));
+            }
+        }
+
+        Map<Long, float[]> embeddings = new HashMap<>();
+        keywordsByProduct.forEach((productId, keywords) -> embeddings.put(productId, keywords.isEmpty()
+                ? null
+                : ProductService.calculateAverage(keywords.stream().map(vectors::get).toList())));
+
+        List<Long> updated = queue.complete(claimed, version.key(), embeddings);
+
+        // 캐시와 JVM 인덱스가 새 임베딩을 반영하도록
+        if (!updated.isEmpty()) {
+            eventPublisher.publishEvent(new ProductChangedEvent(updated, ProductChangedEvent.Type.EMBEDDED));
+        }
+        log.debug("Embedded {} products from outbox ({} entries)", updated.size(), claimed.size());
+        return claimed.size();
+    }
+}
@@ -0,0 +1,157 @@
+package com.back.product.service;
+
+import com.back.embedding.config.EmbeddingVersion;
+import com.back.embedding.service.EmbeddingVersions;
+import com.back.embedding.service.KeywordEmbeddingService;
+import com.back.product.config.ProductBulkProperties;
+import com.back.product.event.ProductChangedEvent;
+import com.back.product.repository.ProductCopyRepository;
+import com.back.product.repository.ProductCopyRepository.NewProduct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * NDJSON 스트림({"name": ..., "keywords": [...]} 한 줄에 한 상품)을 청크 단위로 적재한다.
+ * <p>
+ * 청크마다 키워드를 중복 제거해 한 번에 임베딩하고, COPY 로 넣은 뒤 커밋한다.
+ * 잘못된 줄은 건너뛰고 줄 번호와 함께 보고하며, 청크 적재가 실패하면 그 청크의 줄만 실패로 처리하고 계속 진행한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductBulkIngestService {
+
+    private final ProductCopyRepository productCopyRepository;
+    private final KeywordEmbeddingService keywordEmbeddingService;
+    private final EmbeddingVersions embeddingVersions;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ProductBulkProperties properties;
+
+    public BulkIngestEvent.Summary ingest(InputStream input, Consumer<BulkIngestEvent> listener) throws IOException {
+        long started = System.currentTimeMillis();
+        Tally tally = new Tally();
+        List<Row> chunk = new ArrayList<>(properties.chunkSize());
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) continue;
+
+            try {
+                chunk.add(new Row(lineNumber, parse(line)));
+            } catch (JacksonException | IllegalArgumentException e) {
+                tally.processed++;
+                tally.failed++;
+                listener.accept(new BulkIngestEvent.RowError(lineNumber, e.getMessage()));
+            }
+
+            if (chunk.size() >= properties.chunkSize()) {
+                flush(chunk, tally, listener);
+                chunk.clear();
+            }
+        }
+        flush(chunk, tally, listener);
+
+        BulkIngestEvent.Summary summary = new BulkIngestEvent.Summary(
+                tally.processed, tally.inserted, tally.failed, System.currentTimeMillis() - started);
+        listener.accept(summary);
+        log.info("Bulk ingest finished: {}", summary);
+        return summary;
+    }
+
+    private BulkProductRequest parse(String line) {
+        BulkProductRequest request = objectMapper.readValue(line, BulkProductRequest.class);
+        if (request.name() == null || request.name().isBlank()) {
+            throw new IllegalArgumentException("name is required");
+        }
+        // 잘못된 키워드가 청크 임베딩/COPY 까지 가면 청크 전체가 실패하므로 줄 단위로 걸러낸다
+        for (int i = 0; i < request.keywords().size(); i++) {
+            String keyword = request.keywords().get(i);
+            if (keyword == null || keyword.isBlank()) {
+                throw new IllegalArgumentException("keywords[%d] is blank".formatted(i));
+            }
+        }
+        return request;
+    }
+
+    private void flush(List<Row> chunk, Tally tally, Consumer<BulkIngestEvent> listener) {
+        if (chunk.isEmpty()) return;
+
+        try {
+            List<NewProduct> products = embed(chunk);
+            List<Long> ids = transactionTemplate.execute(status -> productCopyRepository.copyIn(products));
+
+            eventPublisher.publishEvent(new ProductChangedEvent(ids, ProductChangedEvent.Type.CREATED));
+            tally.inserted += ids.size();
+        } catch (RuntimeException e) {
+            log.warn("Bulk ingest chunk failed (lines {}-{})", chunk.getFirst().line(), chunk.getLast().line(), e);
+            tally.failed += chunk.size();
+            for (Row row : chunk) {
+                listener.accept(new BulkIngestEvent.RowError(row.line(), "chunk failed: " + e.getMessage()));
+            }
+        }
+
+        tally.processed += chunk.size();
+        listener.accept(new BulkIngestEvent.Progress(tally.processed, tally.inserted, tally.failed));
+    }
+
+    /**
+     * 청크 전체의 키워드를 중복 제거해 한 번에 임베딩한 뒤 상품별 평균 벡터를 만든다.
+     */
+    private List<NewProduct> embed(List<Row> chunk) {
+        List<String> distinct = chunk.stream()
+                .flatMap(row -> row.request().keywords().stream())
+                .distinct()
+                .toList();
+
+        EmbeddingVersion version = embeddingVersions.active();
+        Map<String, float[]> vectors = new HashMap<>();
+        if (!distinct.isEmpty()) {
+            List<float[]> embeddings = keywordEmbeddingService.embed(distinct, version);
+            for (int i = 0; i < distinct.size(); i++) {
+                vectors.put(distinct.get(i), embeddings.get(i));
+            }
+        }
+
+        return chunk.stream()
+                .map(row -> {
+                    List<String> keywords = row.request().keywords();
+                    float[] embedding = keywords.isEmpty()
+                            ? null
+                            : ProductService.calculateAverage(keywords.stream().map(vectors::get).toList());
+                    return new NewProduct(row.request().name(), keywords, embedding, version.key());
+                })
+                .toList();
+    }
+
+    public record BulkProductRequest(String name, List<String> keywords) {
+        public BulkProductRequest {
+            keywords = keywords == null ? List.of() : keywords;
+        }
+    }
+
+    private record Row(long line, BulkProductRequest request) {}
+
+    private static final class Tally {
+        long processed;
+        long inserted;
+        long failed;
+    }
+}
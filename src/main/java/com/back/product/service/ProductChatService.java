@@ -1,15 +1,43 @@
 package com.back.product.service;
 
+import com.back.embedding.service.EmbeddingClient;
+import com.back.embedding.service.EmbeddingVersions;
+import com.back.global.bulkhead.Bulkhead;
+import com.back.global.bulkhead.BulkheadConfig;
+import com.back.product.config.ProductChatProperties;
+import com.back.product.config.ProductChatProperties.Mode;
+import com.back.product.dto.ProductView;
+import com.back.product.search.SearchOptions;
 import com.back.product.tool.ProductSearchTool;
+import com.back.product.tool.ProductSearchToolFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
 @Service
 public class ProductChatService {
 
     private final ChatClient chatClient;
-    private final ProductSearchTool productSearchTool;
+    private final ProductSearchToolFactory productSearchTools;
+    private final Bulkhead bulkhead;
+    private final ChatResponseCache chatResponseCache;
+    private final ChatIntentRouter chatIntentRouter;
+    private final ProductService productService;
+    private final EmbeddingClient embeddingClient;
+    private final EmbeddingVersions embeddingVersions;
+    private final ProductChatProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary toolCalls;
+    private final Counter streamedTokens;
 
     private static final String SYSTEM_PROMPT = """
         당신은 친절한 상품 추천 어시스턴트입니다.
@@ -19,7 +47,8 @@ public class ProductChatService {
         - searchProducts: 키워드로 상품 검색
         - findSimilarProducts: 특정 상품과 유사한 상품 찾기
         - getProductById: 특정 상품의 상세 정보 조회
-        - getAllProducts: 모든 상품 목록 조회
+        - getCatalogSummary: 카탈로그 전체 요약(상품 수, 주요 키워드) 조회
+        - getAllProducts: 상품 목록을 페이지 단위로 조회 (꼭 필요할 때만 사용)
         
         검색 결과를 바탕으로 항상 도움이 되는 추천을 제공하세요.
         상품을 찾지 못한 경우, 사용자에게 알리고 대안적인 검색어를 제안하세요.
@@ -27,18 +56,57 @@ public class ProductChatService {
         친절하고 도움이 되는 방식으로 응답하세요.
         """;
 
-    public ProductChatService(ChatClient chatClient, ProductSearchTool productSearchTool) {
+    private static final String RETRIEVE_SYSTEM_PROMPT = """
+        당신은 친절한 상품 추천 어시스턴트입니다.
+        사용자의 요구사항과 선호도에 맞는 상품을 찾는 것을 도와줍니다.
+        
+        사용자 메시지 앞의 [검색 결과]는 사용자 질문으로 미리 검색한 상품 목록입니다(유사한 순).
+        이 목록에 있는 상품만 근거로 추천하고, 목록에 없는 상품을 지어내지 마세요.
+        적절한 상품이 없으면 사용자에게 알리고 대안적인 검색어를 제안하세요.
+        
+        친절하고 도움이 되는 방식으로 응답하세요.
+        """;
+
+    public ProductChatService(ChatClient chatClient,
+                              ProductSearchToolFactory productSearchTools,
+                              @Qualifier(BulkheadConfig.CHAT) Bulkhead bulkhead,
+                              ChatResponseCache chatResponseCache,
+                              ChatIntentRouter chatIntentRouter,
+                              ProductService productService,
+                              EmbeddingClient embeddingClient,
+                              EmbeddingVersions embeddingVersions,
+                              ProductChatProperties properties,
+                              MeterRegistry meterRegistry) {
         this.chatClient = chatClient;
-        this.productSearchTool = productSearchTool;
+        this.productSearchTools = productSearchTools;
+        this.bulkhead = bulkhead;
+        this.chatResponseCache = chatResponseCache;
+        this.chatIntentRouter = chatIntentRouter;
+        this.productService = productService;
+        this.embeddingClient = embeddingClient;
+        this.embeddingVersions = embeddingVersions;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.toolCalls = DistributionSummary.builder("product.chat.tool.calls")
+                .description("채팅 한 번(TOOLS 모드)에서 모델이 도구를 부른 횟수")
+                .register(meterRegistry);
+        this.streamedTokens = Counter.builder("product.chat.stream.tokens")
+                .description("스트리밍으로 내보낸 토큰(청크) 수")
+                .register(meterRegistry);
     }
 
     public ChatResponse chat(String userMessage) {
-        String response = chatClient.prompt()
-                .system(SYSTEM_PROMPT)
-                .user(userMessage)
-                .tools(productSearchTool)
-                .call()
-                .content();
+        return chat(userMessage, null);
+    }
+
+    /**
+     * mode 가 null 이면 설정(app.product.chat.mode)을 따른다.
+     */
+    public ChatResponse chat(String userMessage, Mode mode) {
+        // 비슷한 질문에 대한 답변이 캐시에 있거나, 단순 조회라면 모델을 호출하지 않는다
+        Mode resolved = resolve(mode);
+        String response = chatResponseCache.get(userMessage, resolved, query -> chatIntentRouter.route(userMessage, query)
+                .orElseGet(() -> bulkhead.call(() -> call(userMessage, resolved, query))));
 
         return new ChatResponse(response);
     }
@@ -46,11 +114,100 @@ public class ProductChatService {
     public record ChatResponse(String message) {}
 
     public Flux<String> chatStream(String userMessage) {
+        return chatStream(userMessage, null);
+    }
+
+    /**
+     * 스트리밍은 채팅 격벽(app.bulkhead.chat)을 쓰지 않는다. 스트림은 길게 열려 있으므로 따로 세며,
+     * 동시 스트림(= 동시 스트리밍 모델 호출) 수는 ChatSseStreamer 가 app.product.chat.stream.max-concurrent 로 제한한다.
+     * 의도 분류(질문 임베딩, 검색)까지 구독 시점에 실행하므로, 상한에 걸려 거절된 요청은 아무 작업도 하지 않는다.
+     */
+    public Flux<String> chatStream(String userMessage, Mode mode) {
+        Mode resolved = resolve(mode);
+        return Flux.defer(() -> chatIntentRouter.route(userMessage, null)
+                .map(Flux::just)
+                .orElseGet(() -> streamFromModel(userMessage, resolved)));
+    }
+
+    private Flux<String> streamFromModel(String userMessage, Mode mode) {
+        ProductSearchTool tools = productSearchTools.create();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return prompt(userMessage, mode, null, tools).stream().content()
+                .doOnNext(token -> streamedTokens.increment())
+                .doFinally(signal -> {
+                    sample.stop(modelTimer(mode, true));
+                    recordToolCalls(mode, tools);
+                });
+    }
+
+    private String call(String userMessage, Mode mode, float[] queryVector) {
+        ProductSearchTool tools = productSearchTools.create();
+        String content = modelTimer(mode, false).record(() -> prompt(userMessage, mode, queryVector, tools).call().content());
+        recordToolCalls(mode, tools);
+        return content;
+    }
+
+    private ChatClient.ChatClientRequestSpec prompt(String userMessage, Mode mode, float[] queryVector, ProductSearchTool tools) {
+        if (mode == Mode.RETRIEVE) {
+            return chatClient.prompt()
+                    .system(RETRIEVE_SYSTEM_PROMPT)
+                    .user(withRetrieved(userMessage, retrieve(userMessage, queryVector)));
+        }
+
         return chatClient.prompt()
                 .system(SYSTEM_PROMPT)
                 .user(userMessage)
-                .tools(productSearchTool)
-                .stream()
-                .content();
+                .tools(tools);
+    }
+
+    private Mode resolve(Mode mode) {
+        return mode != null ? mode : properties.mode();
+    }
+
+    /**
+     * 모델 호출(도구 실행 포함) 전체 시간. RETRIEVE 모드는 사전 검색 시간도 포함한다.
+     */
+    private Timer modelTimer(Mode mode, boolean streaming) {
+        return Timer.builder("product.chat.model")
+                .description("채팅 모델 호출 시간")
+                .tag("mode", mode.name().toLowerCase())
+                .tag("streaming", String.valueOf(streaming))
+                .register(meterRegistry);
+    }
+
+    private void recordToolCalls(Mode mode, ProductSearchTool tools) {
+        if (mode == Mode.TOOLS) {
+            toolCalls.record(tools.callCount());
+        }
+    }
+
+    /**
+     * 질문 문장 전체를 임베딩해 KNN 검색한다. 캐시 조회에서 이미 임베딩했다면 그 벡터를 그대로 쓴다.
+     */
+    private List<ProductView> retrieve(String userMessage, float[] queryVector) {
+        float[] query = queryVector != null
+                ? queryVector
+                : embeddingClient.embed(List.of(userMessage), embeddingVersions.active()).getFirst();
+        return productService.searchViews(query, properties.retrieveK(), SearchOptions.DEFAULT);
+    }
+
+    private String withRetrieved(String userMessage, List<ProductView> products) {
+        int maxKeywords = properties.budget().maxKeywordsPerProduct();
+        String context = products.isEmpty()
+                ? "(검색된 상품 없음)"
+                : products.stream()
+                        .map(product -> "- [%d] %s (키워드: %s)".formatted(
+                                product.id(),
+                                product.name(),
+                                String.join(", ", product.keywords().subList(0, Math.min(maxKeywords, product.keywords().size())))))
+                        .collect(Collectors.joining("\n"));
+
+        return """
+                [검색 결과]
+                %s
+                
+                [질문]
+                %s
+                """.formatted(context, userMessage);
     }
 }
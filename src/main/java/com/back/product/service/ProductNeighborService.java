@@ -0,0 +1,181 @@
+package com.back.product.service;
+
+import com.back.embedding.event.EmbeddingVersionChangedEvent;
+import com.back.product.config.ProductNeighborProperties;
+import com.back.product.event.ProductChangedEvent;
+import com.back.product.repository.ProductNeighborRepository;
+import com.back.product.repository.ProductVectorRepository;
+import com.back.product.search.SearchOptions;
+import com.back.product.search.VectorHit;
+import com.back.product.search.VectorQuery;
+import com.back.product.search.VectorSearchEngine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 상품별 유사 상품 목록(product_neighbor)을 미리 계산해 두고, 유사 상품 조회를 인덱스 조회 한 번으로 처리한다.
+ * <p>
+ * 목록이 비어 있으면 기동 후 전체를 만들고, 이후에는 상품 변경 이벤트마다 영향을 받는 상품만 다시 계산한다.
+ * 영향 범위는 바뀐 상품 자신, 그 상품을 이웃으로 갖고 있던 상품, 바뀐 상품 근처(size * 2)의 상품이다.
+ * 마지막 항목은 근사이므로 먼 상품의 목록에 새 상품이 늦게 반영될 수 있다. 갱신은 백그라운드 스레드 하나에서 순서대로 처리한다.
+ */
+@Slf4j
+@Service
+public class ProductNeighborService {
+
+    private final ProductNeighborRepository neighborRepository;
+    private final ProductVectorRepository productVectorRepository;
+    private final VectorSearchEngine vectorSearchEngine;
+    private final ProductNeighborProperties properties;
+
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("product-neighbors").factory());
+
+    public ProductNeighborService(ProductNeighborRepository neighborRepository,
+                                  ProductVectorRepository productVectorRepository,
+                                  VectorSearchEngine vectorSearchEngine,
+                                  ProductNeighborProperties properties) {
+        this.neighborRepository = neighborRepository;
+        this.productVectorRepository = productVectorRepository;
+        this.vectorSearchEngine = vectorSearchEngine;
+        this.properties = properties;
+    }
+
+    /**
+     * 저장된 목록에서 k 개. 목록이 없거나 k 보다 짧으면 empty 를 반환하므로 호출하는 쪽에서 엔진으로 검색한다.
+     */
+    public Optional<List<VectorHit>> findNeighbors(Long productId, int k) {
+        if (!properties.enabled() || k > properties.size()) return Optional.empty();
+
+        List<VectorHit> neighbors = neighborRepository.findNeighbors(productId, k);
+        return neighbors.size() < k ? Optional.empty() : Optional.of(neighbors);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIfEmpty() {
+        if (properties.enabled() && neighborRepository.isEmpty()) requestRebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!properties.enabled()) return;
+
+        pending.addAll(event.productIds());
+        executor.execute(this::processPending);
+    }
+
+    @EventListener
+    public void onEmbeddingVersionChanged(EmbeddingVersionChangedEvent event) {
+        if (properties.enabled()) requestRebuild();
+    }
+
+    public void requestRebuild() {
+        rebuildRequested.set(true);
+        executor.execute(this::processPending);
+    }
+
+    private void processPending() {
+        try {
+            if (rebuildRequested.getAndSet(false)) {
+                pending.clear();
+                rebuild();
+                return;
+            }
+
+            Set<Long> changed = drainPending();
+            if (changed.isEmpty()) return;
+
+            if (changed.size() >= properties.fullRebuildThreshold()) {
+                rebuild();
+            } else {
+                refresh(changed);
+            }
+        } catch (RuntimeException e) {
+            log.error("Updating product neighbors failed", e);
+        }
+    }
+
+    /**
+     * 임베딩이 있는 모든 상품의 목록을 batchSize 단위로 다시 계산한다.
+     */
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        long count = 0;
+
+        long afterId = 0;
+        Map<Long, float[]> page;
+        while (!(page = productVectorRepository.findEmbeddingPage(afterId, properties.batchSize())).isEmpty()) {
+            Map<Long, List<VectorHit>> neighbors = compute(page);
+            neighborRepository.replace(page.keySet(), neighbors);
+            count += page.size();
+            afterId = page.keySet().stream().mapToLong(Long::longValue).max().orElseThrow();
+        }
+        neighborRepository.deleteOrphans();
+        log.info("Product neighbors rebuilt for {} products in {} ms", count, System.currentTimeMillis() - started);
+    }
+
+    private void refresh(Set<Long> changed) {
+        Set<Long> affected = new HashSet<>(changed);
+        affected.addAll(neighborRepository.findReferencing(changed));
+
+        Map<Long, float[]> changedEmbeddings = productVectorRepository.findEmbeddings(changed);
+        if (!changedEmbeddings.isEmpty()) {
+            List<VectorQuery> queries = changedEmbeddings.values().stream()
+                    .map(embedding -> new VectorQuery(embedding, properties.size() * 2))
+                    .toList();
+            vectorSearchEngine.searchBatch(queries, SearchOptions.DEFAULT)
+                    .forEach(hits -> hits.forEach(hit -> affected.add(hit.id())));
+        }
+
+        List<Long> ids = new ArrayList<>(affected);
+        for (int from = 0; from < ids.size(); from += properties.batchSize()) {
+            List<Long> chunk = ids.subList(from, Math.min(from + properties.batchSize(), ids.size()));
+            Map<Long, float[]> embeddings = productVectorRepository.findEmbeddings(chunk);
+            neighborRepository.replace(chunk, compute(embeddings));
+        }
+    }
+
+    private Map<Long, List<VectorHit>> compute(Map<Long, float[]> embeddings) {
+        List<Long> ids = new ArrayList<>(embeddings.keySet());
+        List<VectorQuery> queries = ids.stream()
+                .map(id -> new VectorQuery(embeddings.get(id), properties.size() + 1))
+                .toList();
+        List<List<VectorHit>> results = vectorSearchEngine.searchBatch(queries, SearchOptions.DEFAULT);
+
+        Map<Long, List<VectorHit>> neighbors = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            neighbors.put(id, results.get(i).stream()
+                    .filter(hit -> !hit.id().equals(id))
+                    .limit(properties.size())
+                    .toList());
+        }
+        return neighbors;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Set<Long> drainPending() {
+        Set<Long> drained = new HashSet<>();
+        for (Iterator<Long> it = pending.iterator(); it.hasNext(); ) {
+            drained.add(it.next());
+            it.remove();
+        }
+        return drained;
+    }
+}
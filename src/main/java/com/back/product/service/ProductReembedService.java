@@ -0,0 +1,322 @@
+package com.back.product.service;
+
+import com.back.embedding.config.EmbeddingProperties;
+import com.back.embedding.config.EmbeddingVersion;
+import com.back.embedding.entity.EmbeddingMigration;
+import com.back.embedding.entity.EmbeddingMigration.Status;
+import com.back.embedding.event.EmbeddingVersionChangedEvent;
+import com.back.embedding.repository.EmbeddingMigrationRepository;
+import com.back.embedding.service.EmbeddingVersions;
+import com.back.embedding.service.KeywordEmbeddingService;
+import com.back.global.bulkhead.BulkheadFullException;
+import com.back.product.dto.ReembedStatus;
+import com.back.product.event.ProductChangedEvent;
+import com.back.product.repository.ProductReembedRepository;
+import com.back.product.repository.ProductReembedRepository.Row;
+import com.back.product.repository.ProductReembedRepository.Target;
+import com.back.product.search.VectorIndexManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * 임베딩 모델을 바꿀 때 카탈로그 전체를 백그라운드에서 다시 임베딩한다.
+ * <p>
+ * 새 버전 벡터는 섀도 컬럼에 id 순으로 채우며 진행 위치를 embedding_migration 에 남기므로 재기동하면 이어서 진행한다.
+ * 처리량은 app.embedding.reembed.products-per-second 로 제한한다. 채우는 동안 검색은 기존 컬럼과 인덱스를 그대로 쓴다.
+ * 다 채우고 섀도 인덱스까지 만들면 READY 가 되고, cutover() 가 한 트랜잭션에서 컬럼과 인덱스를 맞바꾼다.
+ */
+@Slf4j
+@Service
+public class ProductReembedService {
+
+    // product.embedding 컬럼 차원. 다른 차원의 모델로 바꾸려면 스키마 변경이 필요하다.
+    private static final int PRODUCT_DIMENSIONS = 384;
+    private static final int MAX_CATCH_UP_PASSES = 5;
+    private static final Duration BULKHEAD_RETRY_DELAY = Duration.ofMillis(200);
+
+    private final ProductReembedRepository reembedRepository;
+    private final EmbeddingMigrationRepository migrationRepository;
+    private final KeywordEmbeddingService keywordEmbeddingService;
+    private final EmbeddingVersions embeddingVersions;
+    private final VectorIndexManager vectorIndexManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final EmbeddingProperties.Reembed properties;
+
+    public ProductReembedService(ProductReembedRepository reembedRepository,
+                                 EmbeddingMigrationRepository migrationRepository,
+                                 KeywordEmbeddingService keywordEmbeddingService,
+                                 EmbeddingVersions embeddingVersions,
+                                 VectorIndexManager vectorIndexManager,
+                                 ApplicationEventPublisher eventPublisher,
+                                 TransactionTemplate transactionTemplate,
+                                 EmbeddingProperties properties) {
+        this.reembedRepository = reembedRepository;
+        this.migrationRepository = migrationRepository;
+        this.keywordEmbeddingService = keywordEmbeddingService;
+        this.embeddingVersions = embeddingVersions;
+        this.vectorIndexManager = vectorIndexManager;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties.reembed();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resume() {
+        Optional<EmbeddingMigration> open = findOpen();
+        open.ifPresent(migration -> {
+            // 트리거 없이 만든 섀도 컬럼이 남아 있을 수 있으므로 다시 건다
+            reembedRepository.installInvalidationTrigger();
+            if (migration.getStatus() == Status.RUNNING) {
+                log.info("Resuming re-embedding to {} after product {}", migration.getTargetModel(), migration.getLastProductId());
+                launch(migration.getId());
+            }
+        });
+
+        // 정리하기 전에 종료된 취소/실패 작업의 섀도 컬럼
+        if (open.isEmpty() && reembedRepository.shadowColumnsExist()) {
+            reembedRepository.dropShadowColumns();
+        }
+    }
+
+    public synchronized ReembedStatus start(EmbeddingVersion target) {
+        if (target.dimensions() != PRODUCT_DIMENSIONS) {
+            throw new IllegalArgumentException("Only %d-dimensional models are supported".formatted(PRODUCT_DIMENSIONS));
+        }
+        if (target.equals(embeddingVersions.active())) {
+            throw new IllegalArgumentException("Already using " + target.key());
+        }
+        if (findOpen().isPresent()) {
+            throw new IllegalStateException("Re-embedding already in progress");
+        }
+
+        reembedRepository.resetShadowColumns(target.dimensions());
+        EmbeddingMigration migration = migrationRepository.save(new EmbeddingMigration(target.key()));
+        launch(migration.getId());
+        return toStatus(migration);
+    }
+
+    public Optional<ReembedStatus> status() {
+        return migrationRepository.findFirstByOrderByIdDesc()
+                .map(this::toStatus);
+    }
+
+    public synchronized ReembedStatus cancel() {
+        EmbeddingMigration migration = findOpen()
+                .orElseThrow(() -> new IllegalStateException("No re-embedding in progress"));
+        migrationRepository.transition(migration.getId(), EnumSet.of(Status.RUNNING, Status.READY), Status.CANCELLED, Instant.now());
+        reembedRepository.dropShadowColumns();
+        return toStatus(migrationRepository.findById(migration.getId()).orElseThrow());
+    }
+
+    /**
+     * 섀도 컬럼을 검색 컬럼으로 전환한다. 전환 트랜잭션은 상품 쓰기를 잠깐 막고 남은 작업이 없는지 확인한 뒤 컬럼과 인덱스를 바꾼다.
+     */
+    public synchronized ReembedStatus cutover() {
+        EmbeddingMigration migration = findOpen()
+                .filter(m -> m.getStatus() == Status.READY)
+                .orElseThrow(() -> new IllegalStateException("Re-embedding is not ready for cutover"));
+        EmbeddingVersion target = EmbeddingVersion.parse(migration.getTargetModel());
+
+        // 준비된 뒤에 수정된 상품을 잠금 전에 최대한 따라잡는다
+        catchUp(Target.SHADOW, target);
+
+        boolean indexPromoted = transactionTemplate.execute(status -> {
+            reembedRepository.lockForCutover();
+            long remaining = reembedRepository.countOutdated(Target.SHADOW, target.key());
+            if (remaining > 0) {
+                throw new IllegalStateException("%d products changed during cutover; retry".formatted(remaining));
+            }
+
+            if (migrationRepository.transition(migration.getId(), EnumSet.of(Status.READY), Status.CUT_OVER, Instant.now()) == 0) {
+                throw new IllegalStateException("Re-embedding was cancelled");
+            }
+            reembedRepository.swapShadowColumns();
+            return vectorIndexManager.promoteShadowIndex();
+        });
+
+        // 이벤트 리스너(onEmbeddingVersionChanged)가 repair 를 시작한다
+        embeddingVersions.activate(target);
+
+        if (!indexPromoted) {
+            Thread.ofVirtual().name("vector-index-reconcile").start(vectorIndexManager::reconcile);
+        }
+        return toStatus(migrationRepository.findById(migration.getId()).orElseThrow());
+    }
+
+    /**
+     * 이 인스턴스가 전환했든, 다른 인스턴스의 전환을 EmbeddingVersions 가 따라잡았든 전환 직후 한 번 repair 를 돌린다.
+     * 전환 직전에 이전 버전으로 임베딩해 두고 잠금이 풀린 뒤(또는 전환을 알기 전에) 저장된 상품을 고친다.
+     */
+    @EventListener
+    public void onEmbeddingVersionChanged(EmbeddingVersionChangedEvent event) {
+        Thread.ofVirtual().name("reembed-repair").start(() -> repair(event.current()));
+    }
+
+    private void launch(Long migrationId) {
+        Thread.ofVirtual()
+                .name("reembed-" + migrationId)
+                .start(() -> {
+                    try {
+                        run(migrationId);
+                    } catch (RuntimeException e) {
+                        if (isCancelled(migrationId)) {
+                            // 취소하면서 섀도 컬럼을 지워 진행 중이던 쿼리가 실패한 경우
+                            log.info("Re-embedding {} stopped after cancel: {}", migrationId, e.getMessage());
+                            return;
+                        }
+                        log.error("Re-embedding {} failed", migrationId, e);
+                        fail(migrationId);
+                    }
+                });
+    }
+
+    private synchronized void fail(Long migrationId) {
+        if (migrationRepository.transition(migrationId, EnumSet.of(Status.RUNNING), Status.FAILED, Instant.now()) > 0) {
+                try {
+                reembedRepository.dropShadowColumns();
+            } catch (DataAccessException e) {
+                log.warn("Dropping shadow columns of failed re-embedding {} failed; dropped on next startup", migrationId, e);
+            }
+        }
+    }
+
+    private void run(Long migrationId) {
+        EmbeddingMigration migration = migrationRepository.findById(migrationId).orElseThrow();
+        EmbeddingVersion target = EmbeddingVersion.parse(migration.getTargetModel());
+        long afterId = migration.getLastProductId();
+
+        while (true) {
+            if (isCancelled(migrationId)) return;
+
+            List<Row> batch = reembedRepository.findOutdated(Target.SHADOW, target.key(), afterId, properties.batchSize());
+            if (batch.isEmpty()) break;
+
+            long started = System.nanoTime();
+            int written = embed(Target.SHADOW, target, batch);
+            afterId = batch.getLast().id();
+            migrationRepository.advance(migrationId, afterId, written, Instant.now());
+            throttle(batch.size(), started);
+        }
+
+        catchUp(Target.SHADOW, target);
+        vectorIndexManager.buildShadowIndex();
+
+        if (migrationRepository.transition(migrationId, EnumSet.of(Status.RUNNING), Status.READY, Instant.now()) > 0) {
+            log.info("Re-embedding to {} is ready for cutover", target.key());
+        }
+    }
+
+    /**
+     * 첫 패스 이후 수정되어 섀도 값이 지워진 상품을 처음부터 다시 훑어 채운다.
+     */
+    private void catchUp(Target target, EmbeddingVersion version) {
+        for (int pass = 0; pass < MAX_CATCH_UP_PASSES; pass++) {
+            long afterId = 0;
+            boolean found = false;
+            List<Row> batch;
+            while (!(batch = reembedRepository.findOutdated(target, version.key(), afterId, properties.batchSize())).isEmpty()) {
+                found = true;
+                long started = System.nanoTime();
+                embed(target, version, batch);
+                afterId = batch.getLast().id();
+                throttle(batch.size(), started);
+            }
+            if (!found) return;
+        }
+    }
+
+    private void repair(EmbeddingVersion version) {
+        try {
+            long afterId = 0;
+            List<Row> batch;
+            while (!(batch = reembedRepository.findOutdated(Target.LIVE, version.key(), afterId, properties.batchSize())).isEmpty()) {
+                embed(Target.LIVE, version, batch);
+                eventPublisher.publishEvent(new ProductChangedEvent(
+                        batch.stream().map(Row::id).toList(), ProductChangedEvent.Type.EMBEDDED));
+                afterId = batch.getLast().id();
+            }
+        } catch (RuntimeException e) {
+            log.error("Repairing products embedded with a previous version failed", e);
+        }
+    }
+
+    private int embed(Target target, EmbeddingVersion version, List<Row> batch) {
+        List<String> distinct = batch.stream()
+                .flatMap(row -> row.keywords().stream())
+                .distinct()
+                .toList();
+
+        List<float[]> vectors = embedWaiting(distinct, version);
+        Map<String, float[]> byKeyword = new HashMap<>();
+        for (int i = 0; i < distinct.size(); i++) {
+            byKeyword.put(distinct.get(i), vectors.get(i));
+        }
+
+        Map<Long, float[]> embeddings = new HashMap<>();
+        for (Row row : batch) {
+            embeddings.put(row.id(), ProductService.calculateAverage(row.keywords().stream().map(byKeyword::get).toList()));
+        }
+        return reembedRepository.write(target, version.key(), batch, embeddings);
+    }
+
+    /**
+     * 배경 작업은 요청 처리보다 급하지 않으므로 임베딩 격벽이 가득 차면 실패시키지 않고 기다렸다 다시 시도한다.
+     */
+    private List<float[]> embedWaiting(List<String> keywords, EmbeddingVersion version) {
+        while (true) {
+            try {
+                return keywordEmbeddingService.embed(keywords, version);
+            } catch (BulkheadFullException e) {
+                try {
+                    Thread.sleep(BULKHEAD_RETRY_DELAY);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Re-embedding interrupted", ie);
+                }
+            }
+        }
+    }
+
+    private void throttle(int count, long startedNanos) {
+        long minimumNanos = (long) (count / properties.productsPerSecond() * 1_000_000_000L);
+        long remaining = minimumNanos - (System.nanoTime() - startedNanos);
+        if (remaining <= 0) return;
+
+        try {
+            Thread.sleep(remaining / 1_000_000, (int) (remaining % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Re-embedding interrupted", e);
+        }
+    }
+
+    private boolean isCancelled(Long migrationId) {
+        return migrationRepository.findById(migrationId)
+                .map(m -> m.getStatus() != Status.RUNNING)
+                .orElse(true);
+    }
+
+    private Optional<EmbeddingMigration> findOpen() {
+        return migrationRepository.findFirstByStatusInOrderByIdDesc(EnumSet.of(Status.RUNNING, Status.READY));
+    }
+
+    private ReembedStatus toStatus(EmbeddingMigration migration) {
+        long remaining = switch (migration.getStatus()) {
+            case RUNNING, READY -> reembedRepository.countOutdated(Target.SHADOW, migration.getTargetModel());
+            default -> 0;
+        };
+        return new ReembedStatus(migration.getId(), embeddingVersions.active().key(), migration.getTargetModel(),
+                migration.getStatus(), migration.getLastProductId(), migration.getProcessed(), remaining,
+                migration.getUpdatedAt());
+    }
+}
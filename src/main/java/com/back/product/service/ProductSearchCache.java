@@ -0,0 +1,130 @@
+package com.back.product.service;
+
+import com.back.embedding.event.EmbeddingVersionChangedEvent;
+import com.back.embedding.service.KeywordEmbeddingService;
+import com.back.global.cache.LruCache;
+import com.back.product.config.ProductSearchProperties;
+import com.back.product.dto.ProductView;
+import com.back.product.event.ProductChangedEvent;
+import com.back.product.search.SearchOptions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * KNN 검색 결과 캐시.
+ * 키는 정규화 후 정렬한 키워드 목록, k, 검색 옵션이며, 같은 키의 동시 요청은 하나의 계산(single-flight)으로 합쳐진다.
+ * 상품 변경이 커밋되거나 임베딩 버전이 바뀌면 전체를 무효화한다.
+ */
+@Component
+public class ProductSearchCache {
+
+    private final LruCache<Key, List<ProductView>> cache;
+    private final Counter hits;
+    private final Counter misses;
+    private final ConcurrentHashMap<Key, CompletableFuture<List<ProductView>>> inFlight = new ConcurrentHashMap<>();
+
+    // 무효화 세대. 계산 도중 무효화되었다면 그 결과는 캐시에 넣지 않는다.
+    private long generation;
+
+    public ProductSearchCache(ProductSearchProperties properties, MeterRegistry meterRegistry) {
+        this.cache = new LruCache<>(properties.cache().maxSize(), properties.cache().ttl());
+        this.hits = Counter.builder("product.search.cache.requests").tag("result", "hit")
+                .description("KNN 검색 결과 캐시 조회 수")
+                .register(meterRegistry);
+        this.misses = Counter.builder("product.search.cache.requests").tag("result", "miss")
+                .description("KNN 검색 결과 캐시 조회 수")
+                .register(meterRegistry);
+        Gauge.builder("product.search.cache.size", cache, LruCache::size)
+                .description("KNN 검색 결과 캐시 항목 수")
+                .register(meterRegistry);
+    }
+
+    public List<ProductView> get(List<String> keywords, int k, SearchOptions options, Supplier<List<ProductView>> loader) {
+        Key key = Key.of(keywords, k, options);
+
+        List<ProductView> cached = cache.get(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        CompletableFuture<List<ProductView>> mine = new CompletableFuture<>();
+        CompletableFuture<List<ProductView>> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) return await(running);
+
+        long startedAt = currentGeneration();
+        try {
+            List<ProductView> result = List.copyOf(loader.get());
+            putIfCurrent(key, result, startedAt);
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidateAll();
+    }
+
+    @EventListener
+    public void onEmbeddingVersionChanged(EmbeddingVersionChangedEvent event) {
+        invalidateAll();
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        // 진행 중인 계산은 변경 전 데이터를 볼 수 있으므로 새 요청이 합류하지 않도록 끊는다
+        inFlight.clear();
+        cache.clear();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    private synchronized long currentGeneration() {
+        return generation;
+    }
+
+    private synchronized void putIfCurrent(Key key, List<ProductView> result, long startedAt) {
+        if (generation == startedAt) {
+            cache.put(key, result);
+        }
+    }
+
+    private static List<ProductView> await(CompletableFuture<List<ProductView>> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    private record Key(List<String> keywords, int k, SearchOptions options) {
+        static Key of(List<String> keywords, int k, SearchOptions options) {
+            // 평균 임베딩은 순서와 무관하므로 정렬해서 같은 키로 취급한다 (중복은 평균에 영향을 주므로 유지)
+            List<String> normalized = keywords.stream()
+                    .map(KeywordEmbeddingService::normalize)
+                    .sorted()
+                    .toList();
+            return new Key(normalized, k, options);
+        }
+    }
+}
@@ -1,18 +1,45 @@
 package com.back.product.service;
 
+import com.back.embedding.config.EmbeddingVersion;
+import com.back.embedding.service.EmbeddingVersions;
+import com.back.embedding.service.KeywordEmbeddingService;
+import com.back.global.vector.VectorMath;
+import com.back.product.config.ProductEmbeddingProperties;
+import com.back.product.dto.ProductView;
+import com.back.product.entity.EmbeddingOutbox;
+import com.back.product.entity.EmbeddingStatus;
 import com.back.product.entity.Product;
+import com.back.product.event.ProductChangedEvent;
+import com.back.product.repository.EmbeddingOutboxRepository;
 import com.back.product.repository.ProductRepository;
-import org.springframework.ai.embedding.EmbeddingModel;
+import com.back.product.repository.ProductViewRepository;
+import com.back.product.search.SearchOptions;
+import com.back.product.search.VectorHit;
+import com.back.product.search.VectorQuery;
+import com.back.product.search.VectorSearchEngine;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Limit;
-import org.springframework.data.domain.Score;
-import org.springframework.data.domain.ScoringFunction;
-import org.springframework.data.domain.Vector;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
 @Service
@@ -20,100 +47,321 @@ public class ProductService {
     @Autowired
     private ProductRepository productRepository;
     @Autowired
-    private EmbeddingModel embeddingModel;
+    private ProductViewRepository productViewRepository;
+    @Autowired
+    private VectorSearchEngine vectorSearchEngine;
+    @Autowired
+    private KeywordEmbeddingService keywordEmbeddingService;
+    @Autowired
+    private EmbeddingVersions embeddingVersions;
+    @Autowired
+    private ProductSearchCache productSearchCache;
+    @Autowired
+    private ProductNeighborService productNeighborService;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EmbeddingOutboxRepository embeddingOutboxRepository;
+    @Autowired
+    private ProductEmbeddingProperties embeddingProperties;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @PersistenceContext
+    private EntityManager entityManager;
 
-    @Transactional
     public Product create(String name, List<String> keywords) {
-        Product product = new Product();
-        product.setName(name);
-        keywords.forEach(product::addKeyword);
+        // 모델 호출 동안 DB 커넥션을 붙잡지 않도록 임베딩은 트랜잭션 밖에서 만든다
+        ComputedEmbedding embedding = computeEmbedding(keywords);
 
-        if (!keywords.isEmpty()) {
-            List<float[]> embeddings = embeddingModel.embed(keywords);
-            product.setEmbedding(calculateAverage(embeddings));
-        }
+        return transactionTemplate.execute(status -> {
+            Product product = new Product();
+            product.setName(name);
+            keywords.forEach(product::addKeyword);
 
-        return productRepository.save(product);
+            Product saved = save(product, embedding);
+            eventPublisher.publishEvent(new ProductChangedEvent(saved.getId(), ProductChangedEvent.Type.CREATED));
+            return saved;
+        });
     }
 
     public Optional<Product> findById(Long id) {
         return productRepository.findById(id);
     }
 
+    // 전체를 메모리에 올리므로 소량 데이터에서만 사용. 목록 조회는 findPage / forEachPage 를 사용한다.
     public List<Product> findAll() {
         return StreamSupport.stream(productRepository.findAll().spliterator(), false).toList();
     }
 
-    @Transactional
+    public long count() {
+        return productRepository.count();
+    }
+
+    /**
+     * afterId 다음부터 id 순으로 size 개. keywords 는 페이지 단위로 한 번에 가져온다.
+     */
+    @Transactional(readOnly = true)
+    public List<Product> findPage(Long afterId, int size) {
+        List<Long> ids = productRepository.findIdsAfter(afterId == null ? 0L : afterId, Limit.of(size));
+        if (ids.isEmpty()) return List.of();
+
+        return productRepository.findAllWithKeywordsByIdIn(ids);
+    }
+
+    /**
+     * 전체 카탈로그를 chunkSize 단위로 consumer 에 넘긴다.
+     * 하나의 읽기 트랜잭션 안에서 청크를 처리할 때마다 영속성 컨텍스트를 비우므로 카탈로그 크기와 무관하게 메모리 사용량이 일정하다.
+     */
+    @Transactional(readOnly = true)
+    public void forEachPage(int chunkSize, Consumer<List<Product>> consumer) {
+        Long afterId = 0L;
+        while (true) {
+            List<Product> page = findPage(afterId, chunkSize);
+            if (page.isEmpty()) return;
+
+            consumer.accept(page);
+            if (page.size() < chunkSize) return;
+
+            afterId = page.getLast().getId();
+            entityManager.clear();
+        }
+    }
+
     public Product update(Long id, String name, List<String> keywords) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Product not found: " + id));
-
-        product.setName(name);
-        product.getKeywords().clear();
-        keywords.forEach(product::addKeyword);
-
-        if (!keywords.isEmpty()) {
-            List<float[]> embeddings = embeddingModel.embed(keywords);
-            product.setEmbedding(calculateAverage(embeddings));
-        } else {
-            product.setEmbedding(null);
+        ComputedEmbedding embedding = computeEmbedding(keywords);
+
+        return transactionTemplate.execute(status -> {
+            Product product = productRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Product not found: " + id));
+
+            product.setName(name);
+            product.getKeywords().clear();
+            keywords.forEach(product::addKeyword);
+
+            Product saved = save(product, embedding);
+            eventPublisher.publishEvent(new ProductChangedEvent(saved.getId(), ProductChangedEvent.Type.UPDATED));
+            return saved;
+        });
+    }
+
+    /**
+     * 동기 모드에서는 바로 임베딩하고, 비동기 모드에서는 PENDING 으로 표시해 저장 트랜잭션에 아웃박스 항목을 남긴다.
+     * 비동기 모드의 수정은 워커가 채울 때까지 이전 임베딩으로 검색된다.
+     */
+    private ComputedEmbedding computeEmbedding(List<String> keywords) {
+        if (keywords.isEmpty()) {
+            return new ComputedEmbedding(EmbeddingStatus.NONE, null, null);
+        }
+        if (embeddingProperties.async()) {
+            return new ComputedEmbedding(EmbeddingStatus.PENDING, null, null);
         }
 
-        return productRepository.save(product);
+        EmbeddingVersion version = embeddingVersions.active();
+        List<float[]> embeddings = keywordEmbeddingService.embed(keywords, version);
+        return new ComputedEmbedding(EmbeddingStatus.READY, calculateAverage(embeddings), version.key());
     }
 
+    private Product save(Product product, ComputedEmbedding embedding) {
+        product.setEmbeddingStatus(embedding.status());
+        if (embedding.status() != EmbeddingStatus.PENDING) {
+            product.setEmbedding(embedding.vector());
+            product.setEmbeddingModel(embedding.model());
+        }
+
+        Product saved = productRepository.save(product);
+        if (embedding.status() == EmbeddingStatus.PENDING) {
+            embeddingOutboxRepository.save(new EmbeddingOutbox(saved.getId()));
+        }
+        return saved;
+    }
+
+    private record ComputedEmbedding(EmbeddingStatus status, float[] vector, String model) {}
+
     @Transactional
     public void delete(Long id) {
         productRepository.deleteById(id);
+        eventPublisher.publishEvent(new ProductChangedEvent(id, ProductChangedEvent.Type.DELETED));
     }
 
     public List<Product> knnSearch(List<String> keywords, int k) {
+        return knnSearch(keywords, k, SearchOptions.DEFAULT);
+    }
+
+    /**
+     * 트랜잭션을 걸지 않는다. 임베딩(캐시 적중 포함) 동안 커넥션을 잡지 않도록 벡터 검색과 엔티티 조회가 각자 짧은 읽기 트랜잭션을 연다.
+     * 엔티티는 keywords 를 fetch join 으로 함께 읽으므로 트랜잭션 밖에서도 지연 로딩이 일어나지 않는다.
+     */
+    public List<Product> knnSearch(List<String> keywords, int k, SearchOptions options) {
+        return findAllInOrder(searchHits(keywords, k, options));
+    }
+
+    /**
+     * knnSearch 의 조회 전용 버전. 엔티티 대신 ProductView 를 쿼리 한 번으로 만들고 결과를 캐시한다.
+     */
+    public List<ProductView> searchViews(List<String> keywords, int k, SearchOptions options) {
         if (keywords == null || keywords.isEmpty()) {
             return List.of();
         }
 
-        List<float[]> embeddings = embeddingModel.embed(keywords);
-        float[] queryVector = calculateAverage(embeddings);
+        return recordResults("search", productSearchCache.get(keywords, k, options, () -> toViews(searchHits(keywords, k, options))));
+    }
 
-        return productRepository.searchByEmbeddingNear(Vector.of(queryVector), Score.of(Double.MAX_VALUE, ScoringFunction.euclidean()), Limit.of(k))
-                .stream()
-                .map(result -> result.getContent())
+    /**
+     * 여러 키워드 묶음을 한 번에 검색한다. 전체 키워드를 중복 제거해 한 번에 임베딩하고,
+     * 벡터 검색과 ProductView 조회도 각각 한 번씩만 한다. 결과는 requests 와 같은 순서다.
+     */
+    public List<List<ProductView>> searchViewsBatch(List<BatchSearch> requests, SearchOptions options) {
+        List<String> distinct = requests.stream()
+                .flatMap(request -> request.keywords().stream())
+                .distinct()
                 .toList();
+        if (distinct.isEmpty()) return requests.stream().map(request -> List.<ProductView>of()).toList();
+
+        DistributionSummary.builder("product.search.batch.size")
+                .description("배치 검색 요청당 질의 수")
+                .register(meterRegistry)
+                .record(requests.size());
+
+        List<float[]> embeddings = timed("embed", () -> keywordEmbeddingService.embed(distinct));
+        Map<String, float[]> byKeyword = new HashMap<>();
+        for (int i = 0; i < distinct.size(); i++) {
+            byKeyword.put(distinct.get(i), embeddings.get(i));
+        }
+
+        // 키워드가 없는 요청은 검색하지 않고 빈 결과로 둔다
+        List<Integer> searched = new ArrayList<>();
+        List<VectorQuery> queries = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            BatchSearch request = requests.get(i);
+            if (request.keywords().isEmpty()) continue;
+
+            searched.add(i);
+            queries.add(new VectorQuery(calculateAverage(request.keywords().stream().map(byKeyword::get).toList()), request.k()));
+        }
+        List<List<VectorHit>> hits = timed("vector", () -> vectorSearchEngine.searchBatch(queries, options));
+
+        Map<Long, ProductView> views = timed("load", () -> productViewRepository.findByIds(hits.stream()
+                .flatMap(List::stream)
+                .map(VectorHit::id)
+                .collect(Collectors.toSet())));
+
+        List<List<ProductView>> results = new ArrayList<>(Collections.nCopies(requests.size(), List.of()));
+        for (int i = 0; i < searched.size(); i++) {
+            results.set(searched.get(i), hits.get(i).stream()
+                    .filter(hit -> views.containsKey(hit.id()))
+                    .map(hit -> views.get(hit.id()).withDistance(hit.distance()))
+                    .toList());
+        }
+        return results;
+    }
+
+    /**
+     * 이미 임베딩한 질의 벡터로 검색한다. 채팅 질문처럼 키워드가 아닌 문장을 검색할 때 쓴다.
+     */
+    public List<ProductView> searchViews(float[] queryVector, int k, SearchOptions options) {
+        return recordResults("search", toViews(timed("vector", () -> vectorSearchEngine.search(queryVector, k, options))));
+    }
+
+    public record BatchSearch(List<String> keywords, int k) {
+        public BatchSearch {
+            keywords = keywords == null ? List.of() : keywords;
+        }
     }
 
-    @Transactional(readOnly = true)
     public List<Product> findSimilarProducts(Long productId, int k) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found: " + productId));
+        return findSimilarProducts(productId, k, SearchOptions.DEFAULT);
+    }
 
-        List<String> keywords = product.getKeywords().stream()
-                .map(pk -> pk.getKeyword())
-                .toList();
+    public List<Product> findSimilarProducts(Long productId, int k, SearchOptions options) {
+        return findAllInOrder(similarHits(productId, k, options));
+    }
 
-        // 자기 자신을 제외하기 위해 k+1개를 검색한 후 필터링
-        return knnSearch(keywords, k + 1).stream()
-                .filter(p -> !p.getId().equals(productId))
-                .limit(k)
-                .toList();
+    public List<ProductView> findSimilarViews(Long productId, int k, SearchOptions options) {
+        return recordResults("similar", toViews(similarHits(productId, k, options)));
     }
 
-    private float[] calculateAverage(List<float[]> vectors) {
-        if (vectors.isEmpty()) return new float[0];
+    public Optional<ProductView> findViewById(Long id) {
+        return productViewRepository.findById(id);
+    }
 
-        int dimension = vectors.get(0).length;
-        float[] sum = new float[dimension];
+    public List<ProductView> findViewPage(Long afterId, int size) {
+        return productViewRepository.findPage(afterId, size);
+    }
 
-        for (float[] vector : vectors) {
-            for (int i = 0; i < dimension; i++) {
-                sum[i] += vector[i];
-            }
+    private List<VectorHit> searchHits(List<String> keywords, int k, SearchOptions options) {
+        if (keywords == null || keywords.isEmpty()) {
+            return List.of();
         }
 
-        for (int i = 0; i < dimension; i++) {
-            sum[i] /= vectors.size();
+        List<float[]> embeddings = timed("embed", () -> keywordEmbeddingService.embed(keywords));
+        float[] queryVector = calculateAverage(embeddings);
+
+        return timed("vector", () -> vectorSearchEngine.search(queryVector, k, options));
+    }
+
+    private List<VectorHit> similarHits(Long productId, int k, SearchOptions options) {
+        // 미리 계산된 목록이 있으면 조회 한 번으로 끝낸다. 검색 옵션을 직접 지정한 경우에는 엔진으로 검색한다.
+        if (options.equals(SearchOptions.DEFAULT)) {
+            Optional<List<VectorHit>> precomputed = timed("neighbors", () -> productNeighborService.findNeighbors(productId, k));
+            if (precomputed.isPresent()) return precomputed.get();
         }
 
-        return sum;
+        // 저장된 임베딩(키워드 임베딩 평균)을 그대로 쓰므로 키워드를 다시 임베딩하지 않는다
+        return timed("vector", () -> vectorSearchEngine.searchSimilar(productId, k, options))
+                .orElseGet(() -> {
+                    if (!productRepository.existsById(productId)) {
+                        throw new RuntimeException("Product not found: " + productId);
+                    }
+                    return List.of(); // 키워드가 없어 임베딩이 없는 상품
+                });
+    }
+
+    private List<Product> findAllInOrder(List<VectorHit> hits) {
+        if (hits.isEmpty()) return List.of();
+
+        Map<Long, Product> byId = timed("load", () -> productRepository.findAllWithKeywordsByIdIn(hits.stream().map(VectorHit::id).toList())).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        return hits.stream()
+                .map(hit -> byId.get(hit.id()))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private List<ProductView> toViews(List<VectorHit> hits) {
+        if (hits.isEmpty()) return List.of();
+
+        Map<Long, ProductView> byId = timed("load", () -> productViewRepository.findByIds(hits.stream().map(VectorHit::id).toList()));
+
+        return hits.stream()
+                .filter(hit -> byId.containsKey(hit.id()))
+                .map(hit -> byId.get(hit.id()).withDistance(hit.distance()))
+                .toList();
+    }
+
+    /**
+     * 검색 단계(embed / vector / neighbors / load)별 소요 시간.
+     */
+    private <T> T timed(String stage, Supplier<T> call) {
+        return Timer.builder("product.search.stage")
+                .description("검색 단계별 소요 시간")
+                .tag("stage", stage)
+                .register(meterRegistry)
+                .record(call);
+    }
+
+    private List<ProductView> recordResults(String operation, List<ProductView> results) {
+        DistributionSummary.builder("product.search.results")
+                .description("검색 결과 수")
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .record(results.size());
+        return results;
+    }
+
+    static float[] calculateAverage(List<float[]> vectors) {
+        return VectorMath.mean(vectors);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,167 @@
+package com.back.product.service;
+
+import com.back.embedding.config.EmbeddingVersion;
+import com.back.embedding.service.EmbeddingVersions;
+import com.back.embedding.service.KeywordEmbeddingService;
+import com.back.product.config.ProductBulkProperties;
+import com.back.product.event.ProductChangedEvent;
+import com.back.product.repository.ProductCopyRepository;
+import com.back.product.repository.ProductCopyRepository.NewProduct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+/**
+ * 카탈로그 스냅샷(CatalogSnapshot) 내보내기 / 가져오기.
+ * <p>
+ * 내보내기는 커서로 읽으며 바로 쓰고, 가져오기는 한 트랜잭션 안에서 chunkSize 개씩 COPY 한 뒤 푸터까지 확인되면 커밋한다.
+ * 스냅샷에 담긴 임베딩을 그대로 쓰므로 임베딩 모델을 호출하지 않는다. 예외는 키워드가 있는데 임베딩이 없는 상품
+ * (내보낼 때 비동기 임베딩 대기 중이던 상품)뿐이며, 이 경우에는 트랜잭션 안에서 모델을 호출한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductSnapshotService {
+
+    private static final int FETCH_SIZE = 1_000;
+
+    private final ProductCopyRepository productCopyRepository;
+    private final KeywordEmbeddingService keywordEmbeddingService;
+    private final EmbeddingVersions embeddingVersions;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductBulkProperties properties;
+
+    /**
+     * 현재 임베딩 버전으로 만든 임베딩만 담는다. 다른 버전의 벡터는 가져오는 쪽에서 쓸 수 없으므로 빼고 쓴다.
+     *
+     * @return 내보낸 상품 수
+     */
+    public long export(OutputStream out) throws IOException {
+        long started = System.currentTimeMillis();
+        EmbeddingVersion version = embeddingVersions.active();
+
+        CatalogSnapshot.Writer writer = new CatalogSnapshot.Writer(out, new CatalogSnapshot.Header(version.key(), version.dimensions()));
+        try {
+            productCopyRepository.forEachProduct(version.key(), FETCH_SIZE, product -> {
+                try {
+                    writer.write(new CatalogSnapshot.Entry(product.name(), product.keywords(), product.embedding()));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.close();
+
+        log.info("Catalog snapshot exported: {} products in {}ms", writer.count(), System.currentTimeMillis() - started);
+        return writer.count();
+    }
+
+    /**
+     * 기존 상품은 그대로 두고 스냅샷의 상품을 추가한다. 잘렸거나 레코드 수가 푸터와 다른 스냅샷은 전체를 롤백하므로
+     * 아무 상품도 남지 않는다. 변경 이벤트는 커밋된 뒤에만 전달된다.
+     *
+     * @throws IllegalArgumentException 스냅샷 형식이 잘못된 경우
+     * @throws IllegalStateException    스냅샷의 임베딩 버전이 현재 버전과 다른 경우
+     */
+    public ImportSummary importFrom(InputStream in) throws IOException {
+        long started = System.currentTimeMillis();
+        EmbeddingVersion version = embeddingVersions.active();
+
+        CatalogSnapshot.Reader reader = new CatalogSnapshot.Reader(in);
+        if (!reader.header().embeddingModel().equals(version.key())) {
+            throw new IllegalStateException("snapshot embedding version %s does not match active version %s"
+                    .formatted(reader.header().embeddingModel(), version.key()));
+        }
+
+        ImportSummary summary;
+        try {
+            summary = transactionTemplate.execute(status -> copyAll(reader, version, started));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        log.info("Catalog snapshot imported: {}", summary);
+        return summary;
+    }
+
+    private ImportSummary copyAll(CatalogSnapshot.Reader reader, EmbeddingVersion version, long started) {
+        long imported = 0;
+        long embedded = 0;
+        List<CatalogSnapshot.Entry> chunk = new ArrayList<>(properties.chunkSize());
+        CatalogSnapshot.Entry entry;
+        while ((entry = next(reader)) != null) {
+            chunk.add(entry);
+            if (chunk.size() >= properties.chunkSize()) {
+                embedded += flush(chunk, version);
+                imported += chunk.size();
+                chunk.clear();
+            }
+        }
+        embedded += flush(chunk, version);
+        imported += chunk.size();
+
+        return new ImportSummary(imported, embedded, System.currentTimeMillis() - started);
+    }
+
+    private static CatalogSnapshot.Entry next(CatalogSnapshot.Reader reader) {
+        try {
+            return reader.next();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return 임베딩을 새로 계산한 상품 수
+     */
+    private int flush(List<CatalogSnapshot.Entry> chunk, EmbeddingVersion version) {
+        if (chunk.isEmpty()) return 0;
+
+        Map<String, float[]> vectors = embedMissing(chunk, version);
+        int embedded = 0;
+        List<NewProduct> products = new ArrayList<>(chunk.size());
+        for (CatalogSnapshot.Entry entry : chunk) {
+            float[] embedding = entry.embedding();
+            if (embedding == null && !entry.keywords().isEmpty()) {
+                embedding = ProductService.calculateAverage(entry.keywords().stream().map(vectors::get).toList());
+                embedded++;
+            }
+            products.add(new NewProduct(entry.name(), entry.keywords(), embedding, version.key()));
+        }
+
+        List<Long> ids = productCopyRepository.copyIn(products);
+        eventPublisher.publishEvent(new ProductChangedEvent(ids, ProductChangedEvent.Type.CREATED));
+        return embedded;
+    }
+
+    private Map<String, float[]> embedMissing(List<CatalogSnapshot.Entry> chunk, EmbeddingVersion version) {
+        List<String> distinct = chunk.stream()
+                .filter(entry -> entry.embedding() == null)
+                .flatMap(entry -> entry.keywords().stream())
+                .distinct()
+                .toList();
+        if (distinct.isEmpty()) return Map.of();
+
+        List<float[]> embeddings = keywordEmbeddingService.embed(distinct, version);
+        Map<String, float[]> vectors = new HashMap<>();
+        for (int i = 0; i < distinct.size(); i++) {
+            vectors.put(distinct.get(i), embeddings.get(i));
+        }
+        return vectors;
+    }
+
+    /**
+     * @param embedded 스냅샷에 임베딩이 없어 새로 계산한 상품 수
+     */
+    public record ImportSummary(long imported, long embedded, long elapsedMillis) {}
+}
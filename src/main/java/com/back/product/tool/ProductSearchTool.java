@@ -1,23 +1,53 @@
 package com.back.product.tool;
 
-import com.back.product.entity.Product;
-import com.back.product.entity.ProductKeyword;
+import com.back.embedding.service.KeywordEmbeddingService;
+import com.back.product.dto.CatalogSummary;
+import com.back.product.dto.ProductView;
+import com.back.product.search.SearchOptions;
+import com.back.product.service.CatalogSummaryService;
 import com.back.product.service.ProductService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.ai.tool.annotation.Tool;
 import org.springframework.ai.tool.annotation.ToolParam;
-import org.springframework.stereotype.Component;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 
-@Component
+/**
+ * 채팅 도구. 채팅 턴마다 ProductSearchToolFactory 로 새로 만들며, 같은 턴 안의 반복 호출은 메모에서 돌려준다.
+ * 출력은 ToolOutputBudget 의 토큰 예산 안으로 잘린다.
+ */
 public class ProductSearchTool {
 
     private final ProductService productService;
-
-    public ProductSearchTool(ProductService productService) {
+    private final CatalogSummaryService catalogSummaryService;
+    private final ToolMemo memo;
+    private final ToolOutputBudget budget;
+    private final MeterRegistry meterRegistry;
+
+    // 이번 턴에 모델이 도구를 부른 횟수
+    private final AtomicInteger calls = new AtomicInteger();
+
+    ProductSearchTool(ProductService productService,
+                      CatalogSummaryService catalogSummaryService,
+                      ToolMemo memo,
+                      ToolOutputBudget budget,
+                      MeterRegistry meterRegistry) {
         this.productService = productService;
+        this.catalogSummaryService = catalogSummaryService;
+        this.memo = memo;
+        this.budget = budget;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public int callCount() {
+        return calls.get();
     }
 
     @Tool(description = "주어진 키워드와 유사한 상품을 KNN 벡터 검색으로 찾습니다. 검색 키워드와 의미적으로 유사한 상품의 이름과 키워드 목록을 반환합니다.")
@@ -27,22 +57,13 @@ public class ProductSearchTool {
 
         if (k <= 0) k = 5;
 
-        List<String> keywordList = Arrays.stream(keywords.split(","))
-                .map(String::trim)
-                .filter(s -> !s.isEmpty())
-                .collect(Collectors.toList());
-
-        List<Product> products = productService.knnSearch(keywordList, k);
+        List<String> keywordList = parseKeywords(keywords);
 
-        return products.stream()
-                .map(p -> new ProductInfo(
-                        p.getId(),
-                        p.getName(),
-                        p.getKeywords().stream()
-                                .map(ProductKeyword::getKeyword)
-                                .collect(Collectors.toList())
-                ))
-                .collect(Collectors.toList());
+        int limit = k;
+        return timed("searchProducts", () -> budget.fit(memo.getTop(SearchKey.of(keywordList), limit, top ->
+                productService.searchViews(keywordList, top, SearchOptions.DEFAULT).stream()
+                        .map(budget::toInfo)
+                        .collect(Collectors.toList()))), List::size);
     }
 
     @Tool(description = "특정 상품 ID를 기준으로 유사한 상품을 찾습니다. 키워드 임베딩을 기반으로 비슷한 특성을 가진 상품들을 반환합니다.")
@@ -52,46 +73,96 @@ public class ProductSearchTool {
 
         if (k <= 0) k = 5;
 
-        List<Product> products = productService.findSimilarProducts(productId, k);
-
-        return products.stream()
-                .map(p -> new ProductInfo(
-                        p.getId(),
-                        p.getName(),
-                        p.getKeywords().stream()
-                                .map(ProductKeyword::getKeyword)
-                                .collect(Collectors.toList())
-                ))
-                .collect(Collectors.toList());
+        int limit = k;
+        return timed("findSimilarProducts", () -> budget.fit(memo.getTop(new SimilarKey(productId), limit, top ->
+                productService.findSimilarViews(productId, top, SearchOptions.DEFAULT).stream()
+                        .map(budget::toInfo)
+                        .collect(Collectors.toList()))), List::size);
     }
 
     @Tool(description = "상품 ID로 특정 상품의 상세 정보를 조회합니다.")
     public ProductInfo getProductById(
             @ToolParam(description = "조회할 상품의 ID") Long productId) {
 
-        return productService.findById(productId)
-                .map(p -> new ProductInfo(
-                        p.getId(),
-                        p.getName(),
-                        p.getKeywords().stream()
-                                .map(ProductKeyword::getKeyword)
-                                .collect(Collectors.toList())
-                ))
-                .orElse(null);
+        return timed("getProductById", () -> memo.get(new ProductKey(productId), () -> productService.findViewById(productId)
+                .map(budget::toInfo)
+                .orElse(null)), info -> info == null ? 0 : 1);
     }
 
-    @Tool(description = "시스템에 등록된 모든 상품 목록을 조회합니다.")
-    public List<ProductInfo> getAllProducts() {
-        return productService.findAll().stream()
-                .map(p -> new ProductInfo(
-                        p.getId(),
-                        p.getName(),
-                        p.getKeywords().stream()
-                                .map(ProductKeyword::getKeyword)
-                                .collect(Collectors.toList())
-                ))
+    @Tool(description = "카탈로그 전체의 상품 수와 가장 많이 쓰인 키워드를 요약합니다. 어떤 상품이 있는지 파악할 때는 전체 목록 대신 이것을 먼저 사용하세요.")
+    public CatalogSummary getCatalogSummary() {
+        return timed("getCatalogSummary", catalogSummaryService::summary, summary -> summary.topKeywords().size());
+    }
+
+    @Tool(description = "시스템에 등록된 상품 목록을 id 순으로 페이지 단위로 조회합니다. 다음 페이지는 응답의 nextAfterId 를 afterId 로 넘겨 조회합니다.")
+    public ProductPage getAllProducts(
+            @ToolParam(description = "이 id 다음부터 조회합니다. 첫 페이지는 비워 둡니다.", required = false) Long afterId,
+            @ToolParam(description = "페이지 크기. 기본값은 20이며 최대값을 넘으면 최대값으로 줄어듭니다.", required = false) Integer limit) {
+
+        int size = (limit == null || limit <= 0) ? Math.min(20, budget.maxPageSize()) : Math.min(limit, budget.maxPageSize());
+        return timed("getAllProducts", () -> memo.get(new PageKey(afterId, size), () -> {
+            List<ProductView> page = productService.findViewPage(afterId, size);
+
+            List<ProductInfo> products = budget.fit(page.stream()
+                    .map(budget::toInfo)
+                    .collect(Collectors.toList()));
+
+            // 예산 때문에 잘렸다면 잘린 지점부터 이어서 조회하게 한다
+            Long nextAfterId = products.size() < page.size() || page.size() == size ? products.getLast().id() : null;
+            return new ProductPage(products, nextAfterId);
+        }), page -> page.products().size());
+    }
+
+    /**
+     * 모델이 넘긴 쉼표 구분 키워드 문자열을 목록으로 나눈다.
+     */
+    static List<String> parseKeywords(String keywords) {
+        return Arrays.stream(keywords.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
                 .collect(Collectors.toList());
     }
 
-    public record ProductInfo(Long id, String name, List<String> keywords) {}
+    /**
+     * 도구별 호출 시간과 결과 수를 기록한다. 메모에서 바로 나간 호출도 포함된다.
+     */
+    private <T> T timed(String tool, Supplier<T> call, ToIntFunction<T> resultCount) {
+        calls.incrementAndGet();
+        T result = Timer.builder("product.chat.tool")
+                .description("채팅 도구 호출 시간")
+                .tag("tool", tool)
+                .register(meterRegistry)
+                .record(call);
+        DistributionSummary.builder("product.chat.tool.results")
+                .description("채팅 도구 결과 수")
+                .tag("tool", tool)
+                .register(meterRegistry)
+                .record(resultCount.applyAsInt(result));
+        return result;
+    }
+
+    public record ProductInfo(Long id, String name, List<String> keywords) {
+        static ProductInfo from(ProductView view) {
+            return new ProductInfo(view.id(), view.name(), view.keywords());
+        }
+    }
+
+    public record ProductPage(List<ProductInfo> products, Long nextAfterId) {}
+
+    // ==================== 메모 키 ====================
+    private record SearchKey(List<String> keywords) {
+        static SearchKey of(List<String> keywords) {
+            // 평균 임베딩은 순서와 무관하므로 정렬해서 같은 키로 취급한다
+            return new SearchKey(keywords.stream()
+                    .map(KeywordEmbeddingService::normalize)
+                    .sorted()
+                    .toList());
+        }
+    }
+
+    private record SimilarKey(Long productId) {}
+
+    private record ProductKey(Long productId) {}
+
+    private record PageKey(Long afterId, int size) {}
 }
@@ -0,0 +1,36 @@
+package com.back.product.tool;
+
+import com.back.product.config.ProductChatProperties;
+import com.back.product.service.CatalogSummaryService;
+import com.back.product.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ProductSearchToolFactory {
+
+    private final ProductService productService;
+    private final CatalogSummaryService catalogSummaryService;
+    private final SharedToolMemo sharedMemo;
+    private final ToolOutputBudget budget;
+    private final MeterRegistry meterRegistry;
+
+    public ProductSearchToolFactory(ProductService productService,
+                                    CatalogSummaryService catalogSummaryService,
+                                    SharedToolMemo sharedMemo,
+                                    ProductChatProperties properties,
+                                    MeterRegistry meterRegistry) {
+        this.productService = productService;
+        this.catalogSummaryService = catalogSummaryService;
+        this.sharedMemo = sharedMemo;
+        this.budget = new ToolOutputBudget(properties.budget());
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 채팅 턴 하나에서 쓸 도구. 턴 메모는 이 인스턴스와 함께 버려진다.
+     */
+    public ProductSearchTool create() {
+        return new ProductSearchTool(productService, catalogSummaryService, new ToolMemo(sharedMemo), budget, meterRegistry);
+    }
+}
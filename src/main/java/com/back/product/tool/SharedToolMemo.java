@@ -0,0 +1,43 @@
+package com.back.product.tool;
+
+import com.back.embedding.event.EmbeddingVersionChangedEvent;
+import com.back.global.cache.LruCache;
+import com.back.product.config.ProductChatProperties;
+import com.back.product.event.ProductChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 여러 채팅 턴이 짧은 시간 동안 공유하는 도구 결과 메모. 상품이 바뀌면 전체를 비운다.
+ */
+@Component
+public class SharedToolMemo {
+
+    private final boolean enabled;
+    private final LruCache<Object, Object> cache;
+
+    public SharedToolMemo(ProductChatProperties properties) {
+        ProductChatProperties.Tools tools = properties.tools();
+        this.enabled = tools.sharedMemo();
+        this.cache = new LruCache<>(tools.sharedMemoMaxSize(), tools.sharedMemoTtl());
+    }
+
+    Object get(Object key) {
+        return enabled ? cache.get(key) : null;
+    }
+
+    void put(Object key, Object value) {
+        if (enabled) cache.put(key, value);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        cache.clear();
+    }
+
+    @EventListener
+    public void onEmbeddingVersionChanged(EmbeddingVersionChangedEvent event) {
+        cache.clear();
+    }
+}
@@ -0,0 +1,66 @@
+package com.back.product.tool;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * 한 채팅 턴 동안의 도구 결과 메모. 모델이 같은(또는 겹치는) 인자로 도구를 여러 번 부르면 메모에서 돌려준다.
+ * 키는 정규화된 인자이며, 턴 메모에 없으면 공유 메모를 확인한다.
+ */
+class ToolMemo {
+
+    private final Map<Object, Object> turn = new ConcurrentHashMap<>();
+    private final SharedToolMemo shared;
+
+    ToolMemo(SharedToolMemo shared) {
+        this.shared = shared;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T get(Object key, Supplier<T> loader) {
+        Object cached = lookup(key);
+        if (cached != null) return (T) cached;
+
+        T value = loader.get();
+        if (value != null) store(key, value);
+        return value;
+    }
+
+    /**
+     * 상위 k 개 결과용. 같은 키로 더 큰 k 를 조회한 결과가 있으면 그 앞부분을 돌려준다.
+     * 저장된 결과가 요청한 수보다 적었다면 전체가 이미 나온 것이므로 k 와 관계없이 재사용한다.
+     */
+    @SuppressWarnings("unchecked")
+    <T> List<T> getTop(Object key, int k, IntFunction<List<T>> loader) {
+        if (lookup(key) instanceof TopK<?> cached && (cached.k() >= k || cached.results().size() < cached.k())) {
+            List<T> results = (List<T>) cached.results();
+            return results.subList(0, Math.min(k, results.size()));
+        }
+
+        List<T> results = List.copyOf(loader.apply(k));
+        // 동시에 더 큰 k 로 조회한 결과가 먼저 들어갔다면 덮어쓰지 않는다
+        if (!(lookup(key) instanceof TopK<?> existing && existing.k() >= k)) {
+            store(key, new TopK<>(k, results));
+        }
+        return results;
+    }
+
+    private Object lookup(Object key) {
+        Object cached = turn.get(key);
+        if (cached == null && shared != null) {
+            cached = shared.get(key);
+            if (cached != null) turn.put(key, cached);
+        }
+        return cached;
+    }
+
+    private void store(Object key, Object value) {
+        turn.put(key, value);
+        if (shared != null) shared.put(key, value);
+    }
+
+    private record TopK<T>(int k, List<T> results) {}
+}
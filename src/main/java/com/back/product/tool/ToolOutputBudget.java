@@ -0,0 +1,67 @@
+package com.back.product.tool;
+
+import com.back.product.config.ProductChatProperties;
+import com.back.product.dto.ProductView;
+import com.back.product.tool.ProductSearchTool.ProductInfo;
+
+import java.util.List;
+
+/**
+ * 도구 출력이 프롬프트를 무한정 키우지 않도록 추정 토큰 수로 자른다.
+ * 토크나이저 없이 어림하며, ASCII 는 4자에 1토큰, 그 밖의 문자(한글 등)는 1자에 1토큰으로 센다.
+ */
+class ToolOutputBudget {
+
+    // {"id":..,"name":"..","keywords":[..]} 의 구조 부분
+    private static final int ITEM_OVERHEAD_TOKENS = 8;
+
+    private final ProductChatProperties.Budget budget;
+
+    ToolOutputBudget(ProductChatProperties.Budget budget) {
+        this.budget = budget;
+    }
+
+    int maxPageSize() {
+        return budget.maxPageSize();
+    }
+
+    ProductInfo toInfo(ProductView view) {
+        ProductInfo info = ProductInfo.from(view);
+        if (info.keywords().size() <= budget.maxKeywordsPerProduct()) return info;
+        return new ProductInfo(info.id(), info.name(), info.keywords().subList(0, budget.maxKeywordsPerProduct()));
+    }
+
+    /**
+     * 예산 안에 들어가는 앞쪽 항목만 남긴다. 첫 항목은 예산을 넘더라도 남긴다.
+     */
+    List<ProductInfo> fit(List<ProductInfo> items) {
+        int used = 0;
+        for (int i = 0; i < items.size(); i++) {
+            used += estimate(items.get(i));
+            if (used > budget.maxOutputTokens() && i > 0) {
+                return items.subList(0, i);
+            }
+        }
+        return items;
+    }
+
+    static int estimate(ProductInfo info) {
+        int tokens = ITEM_OVERHEAD_TOKENS + estimate(info.name());
+        for (String keyword : info.keywords()) {
+            tokens += estimate(keyword) + 1;
+        }
+        return tokens;
+    }
+
+    static int estimate(String text) {
+        if (text == null) return 0;
+
+        int ascii = 0;
+        int other = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) < 128) ascii++;
+            else other++;
+        }
+        return (ascii + 3) / 4 + other;
+    }
+}
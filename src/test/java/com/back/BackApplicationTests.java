@@ -1,8 +1,19 @@
 package com.back;
 
 
+import com.back.embedding.service.EmbeddingVersions;
+import com.back.embedding.service.KeywordEmbeddingService;
+import com.back.product.config.ProductChatProperties;
+import com.back.product.dto.ProductView;
+import com.back.product.entity.EmbeddingStatus;
 import com.back.product.entity.Product;
 import com.back.product.repository.ProductRepository;
+import com.back.product.search.PgVectorSearchEngine;
+import com.back.product.search.SearchOptions;
+import com.back.product.search.VectorHit;
+import com.back.product.service.ChatIntentRouter;
+import com.back.product.service.ChatResponseCache;
+import com.back.product.service.ProductNeighborService;
 import com.back.product.service.ProductService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -13,6 +24,8 @@ import org.springframework.context.annotation.Import;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -26,6 +39,24 @@ class BackApplicationTests {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private KeywordEmbeddingService keywordEmbeddingService;
+
+    @Autowired
+    private EmbeddingVersions embeddingVersions;
+
+    @Autowired
+    private PgVectorSearchEngine pgVectorSearchEngine;
+
+    @Autowired
+    private ProductNeighborService productNeighborService;
+
+    @Autowired
+    private ChatResponseCache chatResponseCache;
+
+    @Autowired
+    private ChatIntentRouter chatIntentRouter;
+
     @BeforeEach
     void setUp() {
         productRepository.deleteAll();
@@ -252,4 +283,153 @@ class BackApplicationTests {
         System.out.println("Empty keywords handling: result count = " + results.size());
     }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("KeywordEmbeddingService - 같은 키워드는 모델을 다시 호출하지 않음")
+    void t13() {
+        // given - 정규화하면 같은 키워드
+        List<float[]> first = keywordEmbeddingService.embed(List.of("Cache-Test", " cache-test "));
+        long missesAfterFirst = keywordEmbeddingService.stats().misses();
+
+        // when
+        List<float[]> second = keywordEmbeddingService.embed(List.of("cache-test"));
+
+        // then
+        assertEquals(2, first.size());
+        assertArrayEquals(first.get(0), first.get(1));
+        assertArrayEquals(first.get(0), second.get(0));
+        assertEquals(missesAfterFirst, keywordEmbeddingService.stats().misses(), "Cached keyword should not reach the model");
+    }
+
+    @Test
+    @DisplayName("ProductService - KNN 검색 결과 캐시는 상품 변경 시 무효화됨")
+    void t14() {
+        // given - 캐시에 결과가 올라간 상태
+        productService.create("Espresso Beans", List.of("espresso", "coffee"));
+        List<ProductView> before = productService.searchViews(List.of("coffee", "espresso"), 5, SearchOptions.DEFAULT);
+
+        // when - 같은 검색(순서만 다름) 사이에 상품 추가
+        Product added = productService.create("Cold Brew", List.of("coffee", "cold-brew"));
+        List<ProductView> after = productService.searchViews(List.of("espresso", "coffee"), 5, SearchOptions.DEFAULT);
+
+        // then
+        assertEquals(1, before.size());
+        List<Long> afterIds = after.stream().map(ProductView::id).toList();
+        assertTrue(afterIds.contains(added.getId()), "New product should be visible after invalidation");
+    }
+
+    @Test
+    @DisplayName("ProductService - 검색 결과 ProductView 에 키워드와 거리가 포함됨")
+    void t15() {
+        // given
+        Product laptop = productService.create("ThinkPad X1", List.of("laptop", "business", "lightweight"));
+
+        // when
+        List<ProductView> results = productService.searchViews(List.of("laptop"), 1, SearchOptions.DEFAULT);
+
+        // then
+        assertEquals(1, results.size());
+        ProductView view = results.getFirst();
+        assertEquals(laptop.getId(), view.id());
+        assertEquals(List.of("laptop", "business", "lightweight"), view.keywords());
+        assertNotNull(view.distance());
+    }
+
+    @Test
+    @DisplayName("상품 임베딩에 만든 모델 버전이 함께 저장된다")
+    void t16() {
+        // given
+        Product product = productService.create("Galaxy Tab", List.of("tablet", "android"));
+
+        // when
+        Product found = productRepository.findById(product.getId()).orElseThrow();
+
+        // then
+        assertEquals(EmbeddingStatus.READY, found.getEmbeddingStatus());
+        assertEquals(embeddingVersions.active().key(), found.getEmbeddingModel());
+    }
+
+    @Test
+    @DisplayName("PgVectorSearchEngine - 인덱스 검색의 recall@k 측정")
+    void t17() {
+        // given
+        productService.create("Espresso Machine", List.of("coffee", "espresso", "kitchen"));
+        productService.create("French Press", List.of("coffee", "brewing"));
+        productService.create("Running Shoes", List.of("running", "sports", "shoes"));
+
+        // when
+        PgVectorSearchEngine.RecallReport report = pgVectorSearchEngine.measureRecall(3, 2, SearchOptions.DEFAULT);
+
+        // then
+        assertEquals(3, report.samples());
+        assertTrue(report.recall() >= 0.9, "recall@2 = " + report.recall());
+    }
+
+    @Test
+    @DisplayName("ProductNeighborService - 미리 계산한 유사 상품 목록으로 조회")
+    void t18() {
+        // given
+        Product laptop = productService.create("MacBook Pro", List.of("laptop", "apple"));
+        Product phone = productService.create("iPhone 15", List.of("smartphone", "apple"));
+        Product tablet = productService.create("iPad Pro", List.of("tablet", "apple"));
+
+        // when
+        productNeighborService.rebuild();
+        Optional<List<VectorHit>> neighbors = productNeighborService.findNeighbors(laptop.getId(), 2);
+
+        // then
+        assertTrue(neighbors.isPresent());
+        List<Long> ids = neighbors.get().stream().map(VectorHit::id).toList();
+        assertEquals(2, ids.size());
+        assertFalse(ids.contains(laptop.getId()));
+        assertTrue(ids.containsAll(List.of(phone.getId(), tablet.getId())));
+        assertEquals(ids, productService.findSimilarViews(laptop.getId(), 2, SearchOptions.DEFAULT).stream()
+                .map(ProductView::id)
+                .toList());
+    }
+
+    @Test
+    @DisplayName("ChatResponseCache - 같은 질문은 모델 호출 없이 캐시된 답변을 반환하고, 상품 변경 시 무효화된다")
+    void t19() {
+        // given
+        chatResponseCache.invalidateAll();
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<String> loader = () -> "answer-" + calls.incrementAndGet();
+
+        // when
+        String first = chatResponseCache.get("프로그래밍용 노트북 추천해줘", ProductChatProperties.Mode.TOOLS, loader);
+        String second = chatResponseCache.get("  프로그래밍용   노트북 추천해줘 ", ProductChatProperties.Mode.TOOLS, loader);
+        productService.create("MacBook Pro", List.of("laptop", "apple"));
+        String afterChange = chatResponseCache.get("프로그래밍용 노트북 추천해줘", ProductChatProperties.Mode.TOOLS, loader);
+
+        // then
+        assertEquals("answer-1", first);
+        assertEquals("answer-1", second);
+        assertEquals("answer-2", afterChange);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    @DisplayName("ChatIntentRouter - 예시 문장과 다르게 표현한 단순 조회도 모델 없이 답하고, 열린 질문과 관계없는 질문은 넘긴다")
+    void t20() {
+        // given
+        productService.create("MacBook Pro", List.of("laptop", "notebook", "apple"));
+        productService.create("Yoga Mat", List.of("fitness", "yoga"));
+
+        // when
+        // 예시 문장(DEFAULT_LOOKUP_EXAMPLES / DEFAULT_OPEN_EXAMPLES)을 그대로 쓰지 않은 표현
+        Optional<String> lookup = chatIntentRouter.route("노트북 있으면 좀 찾아줄래?", null);
+        Optional<String> englishLookup = chatIntentRouter.route("can you show me some notebooks", null);
+        Optional<String> open = chatIntentRouter.route("어머니 생신 선물로 무엇을 사면 좋을지 고민이야", null);
+        // 어느 예시와도 threshold 만큼 비슷하지 않은 질문
+        Optional<String> unrelated = chatIntentRouter.route("오늘 서울 날씨 어때?", null);
+
+        // then
+        assertTrue(lookup.isPresent());
+        assertTrue(lookup.get().contains("MacBook Pro"), lookup.get());
+        assertTrue(englishLookup.isPresent());
+        assertTrue(englishLookup.get().contains("MacBook Pro"), englishLookup.get());
+        assertTrue(open.isEmpty());
+        assertTrue(unrelated.isEmpty());
+    }
+
+}
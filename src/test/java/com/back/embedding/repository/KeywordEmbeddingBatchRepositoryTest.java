@@ -0,0 +1,61 @@
+package com.back.embedding.repository;
+
+import com.back.TestcontainersConfiguration;
+import com.back.embedding.entity.KeywordEmbedding;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest
+@ActiveProfiles("test")
+class KeywordEmbeddingBatchRepositoryTest {
+
+    private static final String MODEL = "batch-test:384";
+
+    @Autowired
+    private KeywordEmbeddingBatchRepository batchRepository;
+
+    @Autowired
+    private KeywordEmbeddingRepository keywordEmbeddingRepository;
+
+    @BeforeEach
+    void setUp() {
+        keywordEmbeddingRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("insertIgnoringConflicts - 이미 저장된 키워드만 건너뛰고 같은 배치의 나머지는 저장한다")
+    void t1() {
+        // given
+        keywordEmbeddingRepository.save(new KeywordEmbedding(MODEL, "laptop", vector(1f)));
+
+        // when
+        int inserted = batchRepository.insertIgnoringConflicts(List.of(
+                new KeywordEmbedding(MODEL, "mouse", vector(2f)),
+                new KeywordEmbedding(MODEL, "laptop", vector(3f)),
+                new KeywordEmbedding(MODEL, "keyboard", vector(4f))));
+
+        // then
+        assertEquals(2, inserted);
+        List<KeywordEmbedding> stored = keywordEmbeddingRepository.findByModelAndKeywordIn(MODEL, List.of("laptop", "mouse", "keyboard"));
+        assertEquals(3, stored.size());
+        KeywordEmbedding laptop = stored.stream().filter(e -> e.getKeyword().equals("laptop")).findFirst().orElseThrow();
+        assertArrayEquals(vector(1f), laptop.getEmbedding());
+    }
+
+    private static float[] vector(float value) {
+        float[] vector = new float[384];
+        Arrays.fill(vector, value);
+        return vector;
+    }
+}
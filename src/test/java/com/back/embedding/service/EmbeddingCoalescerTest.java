@@ -0,0 +1,98 @@
+package com.back.embedding.service;
+
+import com.back.embedding.config.EmbeddingVersion;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmbeddingCoalescerTest {
+
+    private static final EmbeddingVersion VERSION = new EmbeddingVersion("model", 1);
+
+    @Test
+    @DisplayName("동시에 들어온 요청은 중복을 제거해 한 번에 호출하고, 요청마다 입력 순서대로 결과를 돌려준다")
+    void t1() throws Exception {
+        // given
+        List<List<String>> calls = new CopyOnWriteArrayList<>();
+        EmbeddingCoalescer coalescer = new EmbeddingCoalescer((texts, version) -> {
+            calls.add(texts);
+            return texts.stream().map(text -> new float[]{text.length()}).toList();
+        }, Duration.ofMillis(500), 64);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<float[]>>> futures = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < 8; i++) {
+            List<String> texts = List.of("shared", "x".repeat(i + 1));
+            futures.add(executor.submit(() -> {
+                start.await();
+                return coalescer.embed(texts, VERSION);
+            }));
+        }
+        start.countDown();
+
+        // then
+        for (int i = 0; i < 8; i++) {
+            List<float[]> result = futures.get(i).get(5, TimeUnit.SECONDS);
+            assertEquals(6f, result.get(0)[0]);
+            assertEquals(i + 1f, result.get(1)[0]);
+        }
+        assertEquals(1, calls.size());
+        assertEquals(9, calls.getFirst().size());
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("서로 다른 입력이 최대 배치 크기만큼 차면 window 를 기다리지 않고 호출한다")
+    void t2() {
+        // given
+        EmbeddingCoalescer coalescer = new EmbeddingCoalescer(
+                (texts, version) -> texts.stream().map(text -> new float[]{1}).toList(),
+                Duration.ofSeconds(30), 2);
+
+        // when
+        List<float[]> result = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> coalescer.embed(List.of("a", "b"), VERSION));
+
+        // then
+        assertEquals(2, result.size());
+    }
+
+    @Test
+    @DisplayName("모델 호출이 실패하면 배치의 모든 요청이 같은 예외를 받는다")
+    void t3() throws Exception {
+        // given
+        EmbeddingCoalescer coalescer = new EmbeddingCoalescer((texts, version) -> {
+            throw new IllegalStateException("model down");
+        }, Duration.ofMillis(300), 64);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // when
+        Future<List<float[]>> first = executor.submit(() -> {
+            start.await();
+            return coalescer.embed(List.of("a"), VERSION);
+        });
+        Future<List<float[]>> second = executor.submit(() -> {
+            start.await();
+            return coalescer.embed(List.of("b"), VERSION);
+        });
+        start.countDown();
+
+        // then
+        for (Future<List<float[]>> future : List.of(first, second)) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+        }
+        executor.shutdown();
+    }
+}
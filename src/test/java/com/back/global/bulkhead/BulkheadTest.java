@@ -0,0 +1,56 @@
+package com.back.global.bulkhead;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkheadTest {
+
+    @Test
+    @DisplayName("허가가 모두 사용 중이면 maxWait 후 BulkheadFullException 으로 거절한다")
+    void t1() {
+        // given
+        Bulkhead bulkhead = new Bulkhead("test", 1, Duration.ofMillis(10));
+        Bulkhead.Permit held = bulkhead.acquire();
+
+        // when & then
+        assertThrows(BulkheadFullException.class, bulkhead::acquire);
+        assertEquals(1, bulkhead.rejectedCount());
+
+        held.close();
+        assertEquals("ok", bulkhead.call(() -> "ok"));
+    }
+
+    @Test
+    @DisplayName("Permit 을 여러 번 닫아도 허가는 한 번만 반납된다")
+    void t2() {
+        // given
+        Bulkhead bulkhead = new Bulkhead("test", 2, Duration.ZERO);
+
+        // when
+        Bulkhead.Permit permit = bulkhead.acquire();
+        permit.close();
+        permit.close();
+
+        // then
+        assertEquals(2, bulkhead.availablePermits());
+    }
+
+    @Test
+    @DisplayName("작업이 예외로 끝나도 허가를 반납한다")
+    void t3() {
+        // given
+        Bulkhead bulkhead = new Bulkhead("test", 1, Duration.ZERO);
+
+        // when
+        assertThrows(IllegalStateException.class, () -> bulkhead.call(() -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        // then
+        assertEquals(1, bulkhead.availablePermits());
+    }
+}
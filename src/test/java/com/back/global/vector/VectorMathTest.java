@@ -0,0 +1,80 @@
+package com.back.global.vector;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class VectorMathTest {
+
+    private static final float EPSILON = 1e-3f;
+
+    private final Random random = new Random(42);
+
+    @Test
+    @DisplayName("SIMD 구현과 스칼라 구현의 결과가 같다 (레인 수로 나누어떨어지지 않는 길이 포함)")
+    void t1() {
+        // build.gradle.kts 의 --add-modules jdk.incubator.vector 가 빠진 환경에서는 건너뛴다
+        assumeTrue(VectorMath.simdEnabled());
+
+        VectorKernels scalar = new ScalarKernels();
+        VectorKernels simd = new SimdKernels();
+
+        for (int dimension : new int[]{1, 7, 384, 385}) {
+            float[] a = randomVector(dimension);
+            float[] b = randomVector(dimension);
+
+            assertEquals(scalar.dot(a, b), simd.dot(a, b), EPSILON);
+            assertEquals(scalar.squaredL2(a, b), simd.squaredL2(a, b), EPSILON);
+
+            float[] scalarSum = a.clone();
+            float[] simdSum = a.clone();
+            scalar.add(scalarSum, b);
+            simd.add(simdSum, b);
+            assertArrayEquals(scalarSum, simdSum, EPSILON);
+
+            scalar.scale(scalarSum, 0.5f);
+            simd.scale(simdSum, 0.5f);
+            assertArrayEquals(scalarSum, simdSum, EPSILON);
+        }
+    }
+
+    @Test
+    @DisplayName("평균 풀링과 정규화")
+    void t2() {
+        float[] mean = VectorMath.mean(List.of(new float[]{1, 2, 3}, new float[]{3, 4, 5}));
+        assertArrayEquals(new float[]{2, 3, 4}, mean, EPSILON);
+
+        float[] normalized = VectorMath.normalize(new float[]{3, 4});
+        assertArrayEquals(new float[]{0.6f, 0.8f}, normalized, EPSILON);
+        assertEquals(1f, VectorMath.norm(normalized), EPSILON);
+
+        assertEquals(0, VectorMath.mean(List.of()).length);
+    }
+
+    @Test
+    @DisplayName("거리와 유사도")
+    void t3() {
+        float[] a = {1, 0};
+        float[] b = {0, 1};
+
+        assertEquals(0f, VectorMath.dot(a, b), EPSILON);
+        assertEquals((float) Math.sqrt(2), VectorMath.l2(a, b), EPSILON);
+        assertEquals(0f, VectorMath.cosine(a, b), EPSILON);
+        assertEquals(1f, VectorMath.cosine(a, new float[]{2, 0}), EPSILON);
+        assertEquals(0f, VectorMath.cosine(a, new float[]{0, 0}), EPSILON);
+        assertThrows(IllegalArgumentException.class, () -> VectorMath.dot(a, new float[]{1}));
+    }
+
+    private float[] randomVector(int dimension) {
+        float[] v = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            v[i] = random.nextFloat() * 2 - 1;
+        }
+        return v;
+    }
+}
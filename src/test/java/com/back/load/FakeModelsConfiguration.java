@@ -0,0 +1,175 @@
+package com.back.load;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+/**
+ * 부하 테스트용 로컬 모델. 네트워크 없이 결정적인 결과를 내고, 지연 시간은 설정으로 흉내 낸다.
+ * <ul>
+ *     <li>임베딩: 텍스트 해시를 시드로 만든 단위 벡터. 같은 텍스트는 항상 같은 벡터다.</li>
+ *     <li>채팅: 도구가 붙어 있으면 메시지 단어로 searchProducts 를 한 번 호출(실제 도구 실행)한 뒤, 결과 요약을 답한다.
+ *     도구 호출과 답변 각각에 모델 지연을 한 번씩 준다.</li>
+ * </ul>
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class FakeModelsConfiguration {
+
+    @Bean
+    @Primary
+    EmbeddingModel fakeEmbeddingModel(@Value("${app.embedding.dimensions:384}") int dimensions,
+                                      @Value("${load.embedding.latency:20ms}") Duration latency) {
+        return new FakeEmbeddingModel(dimensions, latency);
+    }
+
+    @Bean
+    @Primary
+    ChatModel fakeChatModel(@Value("${load.chat.latency:200ms}") Duration latency,
+                            @Value("${load.chat.token-latency:5ms}") Duration tokenLatency) {
+        return new FakeChatModel(latency, tokenLatency);
+    }
+
+    static class FakeEmbeddingModel implements EmbeddingModel {
+
+        private final int dimensions;
+        private final Duration latency;
+
+        FakeEmbeddingModel(int dimensions, Duration latency) {
+            this.dimensions = dimensions;
+            this.latency = latency;
+        }
+
+        @Override
+        public EmbeddingResponse call(EmbeddingRequest request) {
+            sleep(latency);
+            List<String> texts = request.getInstructions();
+            List<Embedding> embeddings = new ArrayList<>(texts.size());
+            for (int i = 0; i < texts.size(); i++) {
+                embeddings.add(new Embedding(vector(texts.get(i)), i));
+            }
+            return new EmbeddingResponse(embeddings);
+        }
+
+        @Override
+        public float[] embed(Document document) {
+            sleep(latency);
+            return vector(document.getText());
+        }
+
+        @Override
+        public int dimensions() {
+            return dimensions;
+        }
+
+        private float[] vector(String text) {
+            long seed = Arrays.hashCode(text.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8));
+            SplittableRandom random = new SplittableRandom(seed);
+            float[] vector = new float[dimensions];
+            double norm = 0;
+            for (int i = 0; i < dimensions; i++) {
+                vector[i] = (float) (random.nextDouble() * 2 - 1);
+                norm += vector[i] * vector[i];
+            }
+            float scale = (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < dimensions; i++) vector[i] *= scale;
+            return vector;
+        }
+    }
+
+    static class FakeChatModel implements ChatModel {
+
+        private final Duration latency;
+        private final Duration tokenLatency;
+
+        FakeChatModel(Duration latency, Duration tokenLatency) {
+            this.latency = latency;
+            this.tokenLatency = tokenLatency;
+        }
+
+        @Override
+        public ChatResponse call(Prompt prompt) {
+            return response(answer(prompt));
+        }
+
+        @Override
+        public Flux<ChatResponse> stream(Prompt prompt) {
+            // 첫 토큰까지는 모델 지연(도구 호출 포함), 이후 토큰마다 tokenLatency
+            return Flux.defer(() -> Flux.fromArray(answer(prompt).split("(?<= )")))
+                    .delayElements(tokenLatency)
+                    .map(FakeChatModel::response);
+        }
+
+        // ChatClient 가 .tools(...) 로 넘긴 도구를 옵션에 실어 주도록 도구 호출 옵션을 기본값으로 둔다
+        @Override
+        public ChatOptions getDefaultOptions() {
+            return ToolCallingChatOptions.builder().build();
+        }
+
+        private String answer(Prompt prompt) {
+            String message = Optional.ofNullable(prompt.getUserMessage()).map(UserMessage::getText).orElse("");
+
+            Optional<ToolCallback> search = prompt.getOptions() instanceof ToolCallingChatOptions options
+                    ? options.getToolCallbacks().stream()
+                            .filter(callback -> callback.getToolDefinition().name().equals("searchProducts"))
+                            .findFirst()
+                    : Optional.empty();
+
+            if (search.isEmpty()) {
+                sleep(latency);
+                return "추천 결과입니다. " + message;
+            }
+
+            // 1차 호출: 모델이 도구 호출을 결정하는 시간
+            sleep(latency);
+            String keywords = Arrays.stream(message.split("\\s+"))
+                    .filter(word -> !word.isBlank())
+                    .limit(3)
+                    .collect(Collectors.joining(","));
+            String result = search.get().call("{\"keywords\":\"%s\",\"k\":5}".formatted(keywords.replace("\"", "")));
+
+            // 2차 호출: 도구 결과로 답변을 만드는 시간
+            sleep(latency);
+            return "검색 결과를 바탕으로 추천합니다: " + result;
+        }
+
+        private static ChatResponse response(String text) {
+            return new ChatResponse(List.of(new Generation(AssistantMessage.builder().content(text).build())));
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        if (duration.isZero()) return;
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.back.load;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 폐쇄 루프 부하 발생기. concurrency 개의 가상 스레드가 duration 동안 요청을 쉬지 않고 보내고,
+ * warmup 동안의 결과는 버린다.
+ */
+class LoadRunner {
+
+    /**
+     * 요청 한 번. 스트리밍이면 첫 이벤트까지의 시간(ns)을 firstEventNanos 로, 아니면 -1 을 돌려준다.
+     */
+    @FunctionalInterface
+    interface Request {
+        Outcome send() throws Exception;
+    }
+
+    record Outcome(boolean ok, long firstEventNanos) {
+        static Outcome of(boolean ok) {
+            return new Outcome(ok, -1);
+        }
+    }
+
+    record Report(String scenario, int concurrency, double seconds, long requests, long errors,
+                  double rps, double p50Millis, double p99Millis, double maxMillis,
+                  Double firstEventP50Millis, Double firstEventP99Millis) {
+
+        String toJson() {
+            return String.format(Locale.ROOT, """
+                    {"scenario":"%s","concurrency":%d,"seconds":%.2f,"requests":%d,"errors":%d,"rps":%.2f,\
+                    "p50Millis":%.3f,"p99Millis":%.3f,"maxMillis":%.3f,"firstEventP50Millis":%s,"firstEventP99Millis":%s}""",
+                    scenario, concurrency, seconds, requests, errors, rps, p50Millis, p99Millis, maxMillis,
+                    firstEventP50Millis == null ? "null" : String.format(Locale.ROOT, "%.3f", firstEventP50Millis),
+                    firstEventP99Millis == null ? "null" : String.format(Locale.ROOT, "%.3f", firstEventP99Millis));
+        }
+
+        @Override
+        public String toString() {
+            String line = String.format(Locale.ROOT, "%-16s c=%-4d n=%-7d err=%-5d rps=%9.1f p50=%8.2fms p99=%8.2fms max=%8.2fms",
+                    scenario, concurrency, requests, errors, rps, p50Millis, p99Millis, maxMillis);
+            if (firstEventP50Millis != null) {
+                line += String.format(Locale.ROOT, " first-event p50=%.2fms p99=%.2fms", firstEventP50Millis, firstEventP99Millis);
+            }
+            return line;
+        }
+    }
+
+    private final int concurrency;
+    private final Duration warmup;
+    private final Duration duration;
+
+    LoadRunner(int concurrency, Duration warmup, Duration duration) {
+        this.concurrency = concurrency;
+        this.warmup = warmup;
+        this.duration = duration;
+    }
+
+    Report run(String scenario, Request request) throws Exception {
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long deadline = measureFrom + duration.toNanos();
+        AtomicInteger errors = new AtomicInteger();
+
+        List<Future<Samples>> futures = new ArrayList<>(concurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                futures.add(executor.submit(() -> {
+                    Samples samples = new Samples();
+                    long now;
+                    while ((now = System.nanoTime()) < deadline) {
+                        Outcome outcome;
+                        try {
+                            outcome = request.send();
+                        } catch (Exception e) {
+                            outcome = Outcome.of(false);
+                        }
+                        long end = System.nanoTime();
+                        if (now < measureFrom) continue;
+
+                        if (!outcome.ok()) errors.incrementAndGet();
+                        samples.latencies.add(end - now);
+                        if (outcome.firstEventNanos() >= 0) samples.firstEvents.add(outcome.firstEventNanos());
+                    }
+                    return samples;
+                }));
+            }
+        }
+
+        List<Long> latencies = new ArrayList<>();
+        List<Long> firstEvents = new ArrayList<>();
+        for (Future<Samples> future : futures) {
+            Samples samples = future.get();
+            latencies.addAll(samples.latencies);
+            firstEvents.addAll(samples.firstEvents);
+        }
+
+        long[] sorted = sorted(latencies);
+        long[] sortedFirstEvents = sorted(firstEvents);
+        double seconds = duration.toNanos() / 1e9;
+        return new Report(
+                scenario, concurrency, seconds, sorted.length, errors.get(),
+                sorted.length / seconds,
+                millis(percentile(sorted, 0.50)),
+                millis(percentile(sorted, 0.99)),
+                millis(sorted.length == 0 ? 0 : sorted[sorted.length - 1]),
+                sortedFirstEvents.length == 0 ? null : millis(percentile(sortedFirstEvents, 0.50)),
+                sortedFirstEvents.length == 0 ? null : millis(percentile(sortedFirstEvents, 0.99)));
+    }
+
+    static void write(Path file, List<Report> reports) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, reports.stream()
+                .map(Report::toJson)
+                .collect(Collectors.joining(",\n", "[\n", "\n]\n")));
+    }
+
+    private static long[] sorted(List<Long> values) {
+        long[] array = values.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(array);
+        return array;
+    }
+
+    // nearest-rank
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.clamp(rank - 1, 0, sorted.length - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static final class Samples {
+        final List<Long> latencies = new ArrayList<>();
+        final List<Long> firstEvents = new ArrayList<>();
+    }
+}
@@ -0,0 +1,180 @@
+package com.back.load;
+
+import com.back.TestcontainersConfiguration;
+import com.back.product.repository.ProductRepository;
+import com.back.product.service.ProductBulkIngestService;
+import com.back.product.service.ProductService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * REST API 처리량/지연 측정. 기본 테스트에서는 제외되며 ./gradlew loadTest 로 실행한다.
+ * <p>
+ * 모델은 FakeModelsConfiguration 의 로컬 구현으로 바뀌므로 네트워크 없이 돌아간다. 설정(시스템 프로퍼티, -P 로 전달):
+ * <ul>
+ *     <li>load.concurrency (16), load.warmup (3s), load.duration (15s), load.products (1000)</li>
+ *     <li>load.scenarios (search,similar,chat,chat-stream)</li>
+ *     <li>load.embedding.latency (20ms), load.chat.latency (200ms), load.chat.token-latency (5ms)</li>
+ * </ul>
+ * 결과는 콘솔과 build/reports/load/results.json 에 남는다.
+ */
+@Tag("load")
+@Import({TestcontainersConfiguration.class, FakeModelsConfiguration.class})
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class LoadTest {
+
+    private static final List<String> VOCABULARY = List.of(
+            "laptop", "gaming", "office", "coffee", "espresso", "running", "shoes", "fitness", "yoga", "audio",
+            "headphones", "wireless", "camera", "travel", "kitchen", "tablet", "drawing", "smartphone", "watch", "outdoor");
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductBulkIngestService productBulkIngestService;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Test
+    @DisplayName("REST API 부하 테스트 - 시나리오별 p50/p99, RPS")
+    void t1() throws Exception {
+        // given
+        productRepository.deleteAll();
+        List<Long> ids = seed(Integer.getInteger("load.products", 1_000));
+        assertFalse(ids.isEmpty());
+
+        LoadRunner runner = new LoadRunner(
+                Integer.getInteger("load.concurrency", 16),
+                Duration.parse("PT" + System.getProperty("load.warmup", "3s")),
+                Duration.parse("PT" + System.getProperty("load.duration", "15s")));
+        Set<String> scenarios = Set.of(System.getProperty("load.scenarios", "search,similar,chat,chat-stream").split(","));
+
+        // when
+        List<LoadRunner.Report> reports = new ArrayList<>();
+        if (scenarios.contains("search")) reports.add(runner.run("search", this::search));
+        if (scenarios.contains("similar")) reports.add(runner.run("similar", () -> similar(ids)));
+        if (scenarios.contains("chat")) reports.add(runner.run("chat", this::chat));
+        if (scenarios.contains("chat-stream")) reports.add(runner.run("chat-stream", this::chatStream));
+
+        // then
+        reports.forEach(System.out::println);
+        LoadRunner.write(Path.of("build", "reports", "load", "results.json"), reports);
+    }
+
+    private List<Long> seed(int count) throws Exception {
+        String ndjson = IntStream.range(0, count)
+                .mapToObj(i -> "{\"name\":\"Load Product %d\",\"keywords\":[%s]}".formatted(i, randomKeywords(3).stream()
+                        .map(keyword -> "\"" + keyword + "\"")
+                        .collect(Collectors.joining(","))))
+                .collect(Collectors.joining("\n"));
+        productBulkIngestService.ingest(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), event -> {
+        });
+
+        List<Long> ids = new ArrayList<>(count);
+        productService.forEachPage(500, page -> page.forEach(product -> ids.add(product.getId())));
+        return ids;
+    }
+
+    // ==================== 시나리오 ====================
+    private LoadRunner.Outcome search() throws Exception {
+        String keywords = randomKeywords(2).stream()
+                .map(keyword -> "\"" + keyword + "\"")
+                .collect(Collectors.joining(","));
+        return send(HttpRequest.newBuilder(uri("/api/v1/products/search"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"keywords\":[%s],\"k\":10}".formatted(keywords)))
+                .build());
+    }
+
+    private LoadRunner.Outcome similar(List<Long> ids) throws Exception {
+        long id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        return send(HttpRequest.newBuilder(uri("/api/v1/products/" + id + "/similar?k=5")).GET().build());
+    }
+
+    private LoadRunner.Outcome chat() throws Exception {
+        return send(HttpRequest.newBuilder(uri("/api/v1/products/chat"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"message\":\"%s\"}".formatted(message())))
+                .build());
+    }
+
+    private LoadRunner.Outcome chatStream() throws Exception {
+        long started = System.nanoTime();
+        HttpRequest request = HttpRequest.newBuilder(uri("/api/v1/products/chat/stream?message="
+                        + URLEncoder.encode(message(), StandardCharsets.UTF_8)))
+                .header("Accept", "text/event-stream")
+                .GET()
+                .build();
+
+        HttpResponse<Stream<String>> response = httpClient.send(request, HttpResponse.BodyHandlers.ofLines());
+        long firstEvent = -1;
+        try (Stream<String> lines = response.body()) {
+            Iterator<String> iterator = lines.iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().startsWith("data:") && firstEvent < 0) {
+                    firstEvent = System.nanoTime() - started;
+                }
+            }
+        }
+        return new LoadRunner.Outcome(response.statusCode() == 200 && firstEvent >= 0, firstEvent);
+    }
+
+    private LoadRunner.Outcome send(HttpRequest request) throws Exception {
+        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        return LoadRunner.Outcome.of(response.statusCode() == 200);
+    }
+
+    /**
+     * 매번 다른 문장이라 의미 캐시와 의도 분류를 거쳐 모델까지 간다(가짜 임베딩끼리는 거의 직교한다).
+     */
+    private String message() {
+        return String.join(" ", randomKeywords(2)) + " recommendation " + sequence.incrementAndGet();
+    }
+
+    private static List<String> randomKeywords(int count) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return random.ints(count, 0, VOCABULARY.size())
+                .mapToObj(VOCABULARY::get)
+                .toList();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,157 @@
+package com.back.product.controller;
+
+import com.back.global.bulkhead.BulkheadFullException;
+import com.back.product.config.ProductChatProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChatSseStreamerTest {
+
+    @Test
+    @DisplayName("토큰을 coalesceMaxTokens 개씩 묶어 한 프레임으로 보내고, 빈 토큰은 버린다")
+    void t1() throws Exception {
+        // given
+        ChatSseStreamer streamer = streamer(Duration.ofMinutes(1), 4, Duration.ofSeconds(1), 10);
+        RecordingEmitter emitter = new RecordingEmitter();
+
+        // when
+        streamer.stream(Flux.just("a", "b", "", "c", "d", "e", "f", "g", "h", "i", "j"), emitter);
+
+        // then
+        assertTrue(emitter.completed.await(1, TimeUnit.SECONDS));
+        assertEquals(List.of("abcd", "efgh", "ij"), emitter.frames);
+    }
+
+    @Test
+    @DisplayName("coalesceWindow 가 지나면 덜 찬 묶음도 바로 보낸다")
+    void t2() throws Exception {
+        // given
+        ChatSseStreamer streamer = streamer(Duration.ofMinutes(1), 16, Duration.ofMillis(50), 10);
+        RecordingEmitter emitter = new RecordingEmitter();
+        Flux<String> tokens = Flux.concat(
+                Flux.just("a", "b"),
+                Flux.just("c").delaySubscription(Duration.ofMillis(300)));
+
+        // when
+        streamer.stream(tokens, emitter);
+
+        // then
+        assertTrue(emitter.completed.await(1, TimeUnit.SECONDS));
+        assertEquals(List.of("ab", "c"), emitter.frames);
+    }
+
+    @Test
+    @DisplayName("토큰이 없어도 heartbeat 주석을 주기적으로 보낸다")
+    void t3() throws Exception {
+        // given
+        ChatSseStreamer streamer = streamer(Duration.ofMillis(20), 16, Duration.ofMillis(50), 10);
+        RecordingEmitter emitter = new RecordingEmitter();
+
+        // when
+        streamer.stream(Flux.never(), emitter);
+        Thread.sleep(200);
+
+        // then
+        assertTrue(emitter.heartbeats.get() >= 2);
+        assertTrue(emitter.frames.isEmpty());
+    }
+
+    @Test
+    @DisplayName("클라이언트가 떠나 전송이 실패하면 업스트림 구독을 취소한다")
+    void t4() throws Exception {
+        // given
+        ChatSseStreamer streamer = streamer(Duration.ofMinutes(1), 1, Duration.ofMillis(10), 10);
+        RecordingEmitter emitter = new RecordingEmitter();
+        CountDownLatch cancelled = new CountDownLatch(1);
+        Flux<String> tokens = Flux.interval(Duration.ofMillis(10))
+                .map(String::valueOf)
+                .doOnCancel(cancelled::countDown);
+
+        // when
+        streamer.stream(tokens, emitter);
+        Thread.sleep(50);
+        emitter.disconnected = true;
+
+        // then
+        assertTrue(cancelled.await(1, TimeUnit.SECONDS));
+        assertTrue(emitter.failed.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("동시 스트림이 maxConcurrent 개면 새 스트림을 업스트림 구독 없이 BulkheadFullException 으로 바로 거절한다")
+    void t5() {
+        // given
+        ChatSseStreamer streamer = streamer(Duration.ofMinutes(1), 16, Duration.ofMillis(50), 2);
+        streamer.stream(Flux.never(), new RecordingEmitter());
+        streamer.stream(Flux.never(), new RecordingEmitter());
+
+        // 구독될 때 의도 분류/모델 호출을 시작하는 업스트림(ProductChatService.chatStream)
+        AtomicInteger subscribed = new AtomicInteger();
+        Flux<String> tokens = Flux.defer(() -> {
+            subscribed.incrementAndGet();
+            return Flux.just("token");
+        });
+
+        // when & then
+        assertThrows(BulkheadFullException.class, () -> streamer.stream(tokens, new RecordingEmitter()));
+        assertEquals(2, streamer.activeStreams());
+        assertEquals(0, subscribed.get());
+    }
+
+    private static ChatSseStreamer streamer(Duration heartbeat, int coalesceMaxTokens, Duration coalesceWindow, int maxConcurrent) {
+        ProductChatProperties.Stream stream = new ProductChatProperties.Stream(
+                Duration.ofMinutes(1), heartbeat, coalesceMaxTokens, coalesceWindow, maxConcurrent);
+        ProductChatProperties properties = new ProductChatProperties(null, 0, stream, null, null, null, null);
+        return new ChatSseStreamer(properties, new SimpleMeterRegistry());
+    }
+
+    /**
+     * 서블릿 응답 대신 보낸 이벤트를 기록한다. disconnected 면 연결이 끊긴 것처럼 전송이 실패한다.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        final List<String> frames = new CopyOnWriteArrayList<>();
+        final AtomicInteger heartbeats = new AtomicInteger();
+        final CountDownLatch completed = new CountDownLatch(1);
+        final CountDownLatch failed = new CountDownLatch(1);
+        volatile boolean disconnected;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (disconnected) throw new IOException("Broken pipe");
+
+            String event = builder.build().stream()
+                    .map(data -> data.getData().toString())
+                    .collect(Collectors.joining());
+            if (event.startsWith(":")) {
+                heartbeats.incrementAndGet();
+            } else {
+                frames.add(event.substring(event.indexOf("data:") + "data:".length()).strip());
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            failed.countDown();
+        }
+    }
+}
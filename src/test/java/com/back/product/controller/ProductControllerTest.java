@@ -2,10 +2,16 @@ package com.back.product.controller;
 
 
 import com.back.TestcontainersConfiguration;
+import com.back.embedding.config.EmbeddingVersion;
+import com.back.embedding.service.EmbeddingVersions;
+import com.back.product.config.ProductChatProperties;
 import com.back.product.entity.Product;
 import com.back.product.repository.ProductRepository;
+import com.back.product.service.CatalogSnapshot;
+import com.back.product.service.ChatResponseCache;
 import com.back.product.service.ProductService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -16,11 +22,15 @@ import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -44,6 +54,15 @@ class ProductControllerTest {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private EmbeddingVersions embeddingVersions;
+
+    @Autowired
+    private ChatResponseCache chatResponseCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @BeforeEach
     void setUp() {
         productRepository.deleteAll();
@@ -334,4 +353,226 @@ class ProductControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(request().asyncStarted());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("POST /api/v1/products/bulk - NDJSON 대량 적재")
+    void t20() throws Exception {
+        String ndjson = """
+                {"name": "Bulk Laptop", "keywords": ["laptop", "bulk"]}
+                {"name": "", "keywords": ["invalid"]}
+                {"name": "Bulk Mouse", "keywords": ["mouse", "bulk"]}
+                """;
+
+        MvcResult started = mockMvc.perform(post("/api/v1/products/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .content(ndjson))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"type\":\"error\",\"line\":2")))
+                .andExpect(content().string(containsString("\"type\":\"summary\",\"processed\":3,\"inserted\":2,\"failed\":1")));
+
+        mockMvc.perform(get("/api/v1/products"))
+                .andExpect(jsonPath("$[*].name", hasItems("Bulk Laptop", "Bulk Mouse")));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/products - 키셋 페이지네이션")
+    void t21() throws Exception {
+        productService.create("Page A", List.of("page", "a"));
+        productService.create("Page B", List.of("page", "b"));
+        productService.create("Page C", List.of("page", "c"));
+
+        MvcResult first = mockMvc.perform(get("/api/v1/products").param("size", "2"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].name").value("Page A"))
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andReturn();
+
+        String cursor = first.getResponse().getHeader("X-Next-Cursor");
+
+        mockMvc.perform(get("/api/v1/products").param("size", "2").param("after", cursor))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name").value("Page C"))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/products/search/batch - 여러 키워드 묶음을 한 번에 검색, 요청 순서대로 응답")
+    void t22() throws Exception {
+        productService.create("Gaming Laptop", List.of("gaming", "laptop"));
+        productService.create("Espresso Machine", List.of("coffee", "espresso"));
+        productService.create("Running Shoes", List.of("running", "shoes"));
+
+        var request = new ProductController.BatchSearchRequest(List.of(
+                new ProductController.SearchRequest(List.of("coffee"), 1),
+                new ProductController.SearchRequest(List.of(), 3),
+                new ProductController.SearchRequest(List.of("gaming", "laptop"), 2)
+        ));
+
+        ResultActions result = mockMvc.perform(post("/api/v1/products/search/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)));
+
+        result.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0]", hasSize(1)))
+                .andExpect(jsonPath("$[0][0].name").value("Espresso Machine"))
+                .andExpect(jsonPath("$[1]", hasSize(0)))
+                .andExpect(jsonPath("$[2]", hasSize(2)))
+                .andExpect(jsonPath("$[2][0].name").value("Gaming Laptop"));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/products/chat - RETRIEVE 모드 (검색 결과를 프롬프트에 넣고 모델 한 번 호출), 캐시는 모드별로 따로 쓴다")
+    void t23() throws Exception {
+        productService.create("Gaming Laptop", List.of("gaming", "laptop", "high-performance"));
+        productService.create("Yoga Mat", List.of("fitness", "yoga", "home"));
+        chatResponseCache.invalidateAll();
+
+        var tools = new ProductController.ChatRequest("Recommend a laptop for gaming", ProductChatProperties.Mode.TOOLS);
+        var retrieve = new ProductController.ChatRequest("Recommend a laptop for gaming", ProductChatProperties.Mode.RETRIEVE);
+
+        mockMvc.perform(post("/api/v1/products/chat")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(tools)))
+                .andExpect(status().isOk());
+        double hitsBefore = cacheHits();
+
+        ResultActions result = mockMvc.perform(post("/api/v1/products/chat")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(retrieve)));
+
+        result.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").isString());
+
+        // TOOLS 모드로 캐시된 답변을 RETRIEVE 요청에 재사용하지 않는다
+        assertEquals(hitsBefore, cacheHits());
+        assertEquals(2, chatResponseCache.size());
+
+        // 같은 모드의 같은 질문은 캐시에서 답한다
+        mockMvc.perform(post("/api/v1/products/chat")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(retrieve)))
+                .andExpect(status().isOk());
+        assertEquals(hitsBefore + 1, cacheHits());
+    }
+
+    private double cacheHits() {
+        return meterRegistry.counter("product.chat.cache.requests", "result", "hit").count();
+    }
+
+    @Test
+    @DisplayName("GET / POST /api/v1/admin/catalog/snapshot - 스냅샷으로 내보낸 카탈로그를 그대로 가져온다")
+    void t24() throws Exception {
+        productService.create("Gaming Laptop", List.of("gaming", "laptop"));
+        productService.create("Espresso Machine", List.of("coffee", "espresso"));
+
+        MvcResult started = mockMvc.perform(get("/api/v1/admin/catalog/snapshot"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] snapshot = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        productRepository.deleteAll();
+
+        mockMvc.perform(post("/api/v1/admin/catalog/snapshot")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(snapshot))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.embedded").value(0));
+
+        var request = new ProductController.SearchRequest(List.of("coffee"), 1);
+        mockMvc.perform(post("/api/v1/products/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Espresso Machine"))
+                .andExpect(jsonPath("$[0].keywords", contains("coffee", "espresso")));
+
+        mockMvc.perform(post("/api/v1/admin/catalog/snapshot")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content("not a snapshot".getBytes()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/products/bulk - 키워드가 null 인 줄만 실패하고 같은 청크의 나머지는 적재")
+    void t25() throws Exception {
+        String ndjson = """
+                {"name": "Bulk Keyboard", "keywords": ["keyboard", "bulk"]}
+                {"name": "Broken", "keywords": ["ok", null]}
+                {"name": "Bulk Monitor", "keywords": ["monitor", "bulk"]}
+                """;
+
+        MvcResult started = mockMvc.perform(post("/api/v1/products/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .content(ndjson))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"type\":\"error\",\"line\":2,\"message\":\"keywords[1] is blank\"")))
+                .andExpect(content().string(containsString("\"type\":\"summary\",\"processed\":3,\"inserted\":2,\"failed\":1")));
+
+        mockMvc.perform(get("/api/v1/products"))
+                .andExpect(jsonPath("$[*].name", hasItems("Bulk Keyboard", "Bulk Monitor")))
+                .andExpect(jsonPath("$[*].name", not(hasItem("Broken"))));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/products - 파라미터가 없으면 페이지 크기와 무관하게 전체 목록")
+    void t26() throws Exception {
+        for (int i = 0; i < 120; i++) {
+            productService.create("Listed " + i, List.of());
+        }
+
+        mockMvc.perform(get("/api/v1/products"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(120)))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/admin/catalog/snapshot - 잘린 스냅샷은 앞 청크까지 포함해 아무것도 가져오지 않는다")
+    void t27() throws Exception {
+        productService.create("Existing", List.of("existing"));
+
+        EmbeddingVersion version = embeddingVersions.active();
+        float[] embedding = new float[version.dimensions()];
+        Arrays.fill(embedding, 0.05f);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CatalogSnapshot.Writer writer = new CatalogSnapshot.Writer(out, new CatalogSnapshot.Header(version.key(), version.dimensions()))) {
+            // 기본 청크 크기(1000)보다 많이 써서 첫 청크가 COPY 된 뒤에 실패하게 한다
+            for (int i = 0; i < 1_200; i++) {
+                writer.write(new CatalogSnapshot.Entry("Snapshot " + i, List.of("snapshot"), embedding));
+            }
+        }
+        byte[] truncated = Arrays.copyOf(out.toByteArray(), out.size() - 100);
+
+        mockMvc.perform(post("/api/v1/admin/catalog/snapshot")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(truncated))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+
+        assertEquals(1, productRepository.count());
+    }
+}
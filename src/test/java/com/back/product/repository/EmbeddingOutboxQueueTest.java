@@ -0,0 +1,146 @@
+package com.back.product.repository;
+
+import com.back.TestcontainersConfiguration;
+import com.back.product.entity.EmbeddingOutbox;
+import com.back.product.entity.Product;
+import com.back.product.repository.EmbeddingOutboxQueue.Claimed;
+import com.back.product.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest
+@ActiveProfiles("test")
+class EmbeddingOutboxQueueTest {
+
+    @Autowired
+    private EmbeddingOutboxQueue queue;
+
+    @Autowired
+    private EmbeddingOutboxRepository embeddingOutboxRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductViewRepository productViewRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        embeddingOutboxRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("claim - 리스 중인 항목은 다시 가져가지 않고, 리스가 끝나면 다시 가져간다")
+    void t1() throws Exception {
+        // given
+        Product product = pending("Outbox Laptop", List.of("laptop", "outbox"));
+        embeddingOutboxRepository.save(new EmbeddingOutbox(product.getId()));
+
+        // when
+        List<Claimed> first = queue.claim(10, Duration.ofMinutes(1));
+        List<Claimed> whileLeased = queue.claim(10, Duration.ofMinutes(1));
+        jdbcTemplate.update("update embedding_outbox set locked_until = now() - interval '1 second'");
+        List<Claimed> afterExpiry = queue.claim(10, Duration.ofMinutes(1));
+
+        // then
+        assertEquals(1, first.size());
+        assertEquals(product.getId(), first.getFirst().productId());
+        assertEquals(List.of("laptop", "outbox"), first.getFirst().keywords());
+        assertTrue(whileLeased.isEmpty());
+        assertEquals(first.getFirst().id(), afterExpiry.getFirst().id());
+    }
+
+    @Test
+    @DisplayName("complete - 임베딩을 반영하고 가져간 항목을 지운다. 반영 전에는 검색 결과에 pending 으로 표시된다")
+    void t2() {
+        // given
+        Product product = pending("Outbox Mouse", List.of("mouse"));
+        embeddingOutboxRepository.save(new EmbeddingOutbox(product.getId()));
+        List<Claimed> claimed = queue.claim(10, Duration.ofMinutes(1));
+        assertTrue(productViewRepository.findById(product.getId()).orElseThrow().embeddingPending());
+
+        // when
+        List<Long> updated = queue.complete(claimed, "model:3", Map.of(product.getId(), new float[384]));
+
+        // then
+        assertEquals(List.of(product.getId()), updated);
+        assertEquals(0, embeddingOutboxRepository.count());
+        assertEquals("READY", status(product.getId()));
+        assertFalse(productViewRepository.findById(product.getId()).orElseThrow().embeddingPending());
+    }
+
+    @Test
+    @DisplayName("complete - 다른 워커가 가져간 더 새로운 항목이 있는 상품은 배치의 다른 상품 id 가 더 커도 덮어쓰지 않는다")
+    void t3() {
+        // given
+        Product a = pending("Outbox A", List.of("a"));
+        Product b = pending("Outbox B", List.of("b"));
+        EmbeddingOutbox a1 = embeddingOutboxRepository.save(new EmbeddingOutbox(a.getId()));
+        EmbeddingOutbox a2 = embeddingOutboxRepository.save(new EmbeddingOutbox(a.getId()));
+        EmbeddingOutbox b1 = embeddingOutboxRepository.save(new EmbeddingOutbox(b.getId()));
+        // a2 는 다른 워커가 가져간 상태
+        jdbcTemplate.update("update embedding_outbox set locked_until = now() + interval '1 minute' where id = ?", a2.getId());
+
+        List<Claimed> claimed = queue.claim(10, Duration.ofMinutes(1));
+        assertEquals(List.of(a1.getId(), b1.getId()), claimed.stream().map(Claimed::id).toList());
+
+        // when
+        List<Long> updated = queue.complete(claimed, "model:3",
+                Map.of(a.getId(), new float[384], b.getId(), new float[384]));
+
+        // then
+        assertEquals(List.of(b.getId()), updated);
+        assertEquals("PENDING", status(a.getId()));
+        assertEquals("READY", status(b.getId()));
+        assertEquals(List.of(a2.getId()), jdbcTemplate.queryForList("select id from embedding_outbox", Long.class));
+    }
+
+    @Test
+    @DisplayName("complete - 가져간 뒤 키워드가 비워진 상품은 이전 키워드로 만든 임베딩으로 덮어쓰지 않는다")
+    void t4() {
+        // given
+        Product product = pending("Outbox Cleared", List.of("cleared"));
+        embeddingOutboxRepository.save(new EmbeddingOutbox(product.getId()));
+        List<Claimed> claimed = queue.claim(10, Duration.ofMinutes(1));
+        // 비동기 모드에서 키워드를 비우는 수정은 아웃박스 항목 없이 바로 NONE 으로 저장된다
+        productService.update(product.getId(), "Outbox Cleared", List.of());
+
+        // when
+        List<Long> updated = queue.complete(claimed, "model:3", Map.of(product.getId(), new float[384]));
+
+        // then
+        assertTrue(updated.isEmpty());
+        assertEquals("NONE", status(product.getId()));
+        assertEquals(0, embeddingOutboxRepository.count());
+    }
+
+    private Product pending(String name, List<String> keywords) {
+        Product product = productService.create(name, keywords);
+        jdbcTemplate.update("update product set embedding_status = 'PENDING' where id = ?", product.getId());
+        return product;
+    }
+
+    private String status(Long productId) {
+        return jdbcTemplate.queryForObject("select embedding_status from product where id = ?", String.class, productId);
+    }
+}
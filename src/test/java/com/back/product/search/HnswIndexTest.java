@@ -0,0 +1,102 @@
+package com.back.product.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HnswIndexTest {
+
+    private static final int DIMENSION = 32;
+
+    @Test
+    @DisplayName("HNSW 검색 결과가 전수 검색과 대부분 일치")
+    void t1() {
+        // given
+        Random random = new Random(42);
+        HnswIndex index = new HnswIndex(16, 64, VectorDistance.EUCLIDEAN);
+        Map<Long, float[]> vectors = new HashMap<>();
+        for (long id = 1; id <= 1_000; id++) {
+            float[] vector = randomVector(random);
+            vectors.put(id, vector);
+            index.add(id, vector);
+        }
+
+        // when
+        int matched = 0;
+        int total = 0;
+        for (int q = 0; q < 20; q++) {
+            float[] query = randomVector(random);
+            Set<Long> approximate = new HashSet<>(index.search(query, 10, 64).stream().map(VectorHit::id).toList());
+            List<Long> exact = vectors.entrySet().stream()
+                    .sorted(Comparator.comparingDouble(e -> VectorDistance.EUCLIDEAN.distance(query, e.getValue())))
+                    .limit(10)
+                    .map(Map.Entry::getKey)
+                    .toList();
+
+            for (Long id : exact) {
+                total++;
+                if (approximate.contains(id)) matched++;
+            }
+        }
+
+        // then
+        double recall = (double) matched / total;
+        assertTrue(recall >= 0.9, "Recall should be at least 0.9 but was " + recall);
+    }
+
+    @Test
+    @DisplayName("삭제/갱신된 벡터는 결과에 반영")
+    void t2() {
+        // given
+        HnswIndex index = new HnswIndex(8, 32, VectorDistance.EUCLIDEAN);
+        index.add(1L, new float[]{0, 0});
+        index.add(2L, new float[]{1, 0});
+        index.add(3L, new float[]{5, 5});
+
+        // when
+        index.remove(1L);
+        index.add(3L, new float[]{0.1f, 0});
+
+        // then
+        List<VectorHit> hits = index.search(new float[]{0, 0}, 2, 10);
+        assertEquals(List.of(3L, 2L), hits.stream().map(VectorHit::id).toList());
+        assertFalse(index.contains(1L));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    @DisplayName("같은 상품을 계속 갱신해도 톰스톤이 쌓이지 않고, liveVectors 는 살아있는 벡터만 담는다")
+    void t3() {
+        // given
+        Random random = new Random(7);
+        HnswIndex index = new HnswIndex(8, 32, VectorDistance.EUCLIDEAN);
+        for (long id = 1; id <= 50; id++) {
+            index.add(id, randomVector(random));
+        }
+
+        // when
+        for (int round = 0; round < 20; round++) {
+            for (long id = 1; id <= 50; id++) {
+                index.add(id, randomVector(random));
+            }
+        }
+        index.remove(50L);
+
+        // then
+        assertTrue(index.tombstones() <= index.size(), "tombstones: " + index.tombstones());
+        assertEquals(49, index.size());
+        assertEquals(49, index.liveVectors().size());
+        assertFalse(index.liveVectors().containsKey(50L));
+    }
+
+    private static float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = random.nextFloat();
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,61 @@
+package com.back.product.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogSnapshotTest {
+
+    @Test
+    @DisplayName("쓴 순서대로 이름, 키워드, 임베딩을 그대로 읽는다")
+    void t1() throws Exception {
+        // given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CatalogSnapshot.Writer writer = new CatalogSnapshot.Writer(out, new CatalogSnapshot.Header("model:3", 3))) {
+            writer.write(new CatalogSnapshot.Entry("노트북", List.of("laptop", "게이밍"), new float[]{0.1f, -2.5f, 3e-7f}));
+            writer.write(new CatalogSnapshot.Entry("Empty", List.of(), null));
+        }
+
+        // when
+        CatalogSnapshot.Reader reader = new CatalogSnapshot.Reader(new ByteArrayInputStream(out.toByteArray()));
+        CatalogSnapshot.Entry first = reader.next();
+        CatalogSnapshot.Entry second = reader.next();
+
+        // then
+        assertEquals(new CatalogSnapshot.Header("model:3", 3), reader.header());
+        assertEquals("노트북", first.name());
+        assertEquals(List.of("laptop", "게이밍"), first.keywords());
+        assertArrayEquals(new float[]{0.1f, -2.5f, 3e-7f}, first.embedding());
+        assertEquals("Empty", second.name());
+        assertNull(second.embedding());
+        assertNull(reader.next());
+    }
+
+    @Test
+    @DisplayName("잘린 파일이나 스냅샷이 아닌 입력은 거부한다")
+    void t2() throws Exception {
+        // given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CatalogSnapshot.Writer writer = new CatalogSnapshot.Writer(out, new CatalogSnapshot.Header("model:2", 2))) {
+            writer.write(new CatalogSnapshot.Entry("A", List.of("a"), new float[]{1, 2}));
+            writer.write(new CatalogSnapshot.Entry("B", List.of("b"), new float[]{3, 4}));
+        }
+        byte[] truncated = Arrays.copyOf(out.toByteArray(), out.size() - 12);
+
+        // when
+        CatalogSnapshot.Reader reader = new CatalogSnapshot.Reader(new ByteArrayInputStream(truncated));
+        reader.next();
+
+        // then
+        assertThrows(EOFException.class, reader::next);
+        assertThrows(IllegalArgumentException.class,
+                () -> new CatalogSnapshot.Reader(new ByteArrayInputStream("{\"name\": \"x\"}".getBytes())));
+    }
+}
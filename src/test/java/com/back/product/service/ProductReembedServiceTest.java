@@ -0,0 +1,158 @@
+package com.back.product.service;
+
+import com.back.TestcontainersConfiguration;
+import com.back.embedding.config.EmbeddingVersion;
+import com.back.embedding.entity.EmbeddingMigration.Status;
+import com.back.embedding.service.EmbeddingVersions;
+import com.back.embedding.service.KeywordEmbeddingService;
+import com.back.load.FakeModelsConfiguration;
+import com.back.product.dto.ReembedStatus;
+import com.back.product.entity.Product;
+import com.back.product.repository.ProductReembedRepository;
+import com.back.product.repository.ProductReembedRepository.Target;
+import com.back.product.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Import({TestcontainersConfiguration.class, FakeModelsConfiguration.class})
+@SpringBootTest(properties = {
+        "app.embedding.reembed.products-per-second=100000",
+        "load.embedding.latency=0ms"
+})
+@ActiveProfiles("test")
+class ProductReembedServiceTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @Autowired
+    private ProductReembedService reembedService;
+
+    @Autowired
+    private ProductReembedRepository reembedRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EmbeddingVersions embeddingVersions;
+
+    @Autowired
+    private KeywordEmbeddingService keywordEmbeddingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<Long> ids;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        ids = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            ids.add(productService.create("Reembed " + i, List.of("keyword" + i, "reembed")).getId());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        // 다음 테스트가 새 작업을 시작할 수 있도록 남은 작업을 정리한다
+        reembedService.status()
+                .filter(status -> status.status() == Status.RUNNING || status.status() == Status.READY)
+                .ifPresent(status -> reembedService.cancel());
+    }
+
+    @Test
+    @DisplayName("재임베딩 - 시작 → READY → 전환하면 모든 상품이 새 버전이 되고 섀도 컬럼이 사라진다")
+    void t1() throws Exception {
+        // given
+        EmbeddingVersion target = EmbeddingVersion.parse("reembed-a:384");
+        reembedService.start(target);
+        awaitStatus(Status.READY);
+
+        // when
+        ReembedStatus status = reembedService.cutover();
+
+        // then
+        assertEquals(Status.CUT_OVER, status.status());
+        assertEquals(target, embeddingVersions.active());
+        assertEquals(0, reembedRepository.countOutdated(Target.LIVE, target.key()));
+        assertEquals(List.of(target.key()),
+                jdbcTemplate.queryForList("select distinct embedding_model from product", String.class));
+        assertFalse(reembedRepository.shadowColumnsExist());
+    }
+
+    @Test
+    @DisplayName("재임베딩 - 취소하면 섀도 컬럼과 인덱스를 지우고 활성 버전은 그대로다")
+    void t2() throws Exception {
+        // given
+        EmbeddingVersion active = embeddingVersions.active();
+        reembedService.start(EmbeddingVersion.parse("reembed-b:384"));
+        assertTrue(reembedRepository.shadowColumnsExist());
+
+        // when
+        ReembedStatus status = reembedService.cancel();
+
+        // then
+        assertEquals(Status.CANCELLED, status.status());
+        assertEquals(active, embeddingVersions.active());
+        assertFalse(reembedRepository.shadowColumnsExist());
+        assertEquals(0, (long) jdbcTemplate.queryForObject(
+                "select count(*) from pg_indexes where indexname = 'product_reembed_ann_idx'", Long.class));
+
+        // 취소 후 새 작업을 다시 시작할 수 있다
+        reembedService.start(EmbeddingVersion.parse("reembed-c:384"));
+        assertTrue(reembedRepository.shadowColumnsExist());
+    }
+
+    @Test
+    @DisplayName("재임베딩 - READY 뒤 이벤트 없이(다른 인스턴스에서) 키워드가 바뀐 상품도 전환 전에 새 키워드로 다시 임베딩된다")
+    void t3() throws Exception {
+        // given
+        EmbeddingVersion target = EmbeddingVersion.parse("reembed-d:384");
+        reembedService.start(target);
+        awaitStatus(Status.READY);
+        Long edited = ids.get(3);
+
+        // when
+        // 이 인스턴스의 이벤트를 거치지 않는 쓰기. 트리거가 같은 트랜잭션에서 섀도 값을 지워야 한다
+        jdbcTemplate.update("delete from product_keyword where product_id = ? and keyword = 'keyword3'", edited);
+        jdbcTemplate.update("insert into product_keyword (product_id, keyword) values (?, 'edited')", edited);
+        long afterEdit = reembedRepository.countOutdated(Target.SHADOW, target.key());
+        reembedService.cutover();
+
+        // then
+        assertEquals(1, afterEdit);
+        assertEquals(0, reembedRepository.countOutdated(Target.LIVE, target.key()));
+        Product product = productRepository.findById(edited).orElseThrow();
+        float[] expected = ProductService.calculateAverage(keywordEmbeddingService.embed(List.of("reembed", "edited"), target));
+        assertEquals(target.key(), product.getEmbeddingModel());
+        assertArrayEquals(expected, product.getEmbedding(), 1e-5f);
+    }
+
+    private void awaitStatus(Status expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            Status current = reembedService.status().orElseThrow().status();
+            if (current == expected) return;
+            assertNotEquals(Status.FAILED, current);
+            Thread.sleep(50);
+        }
+        fail("re-embedding did not reach " + expected);
+    }
+}
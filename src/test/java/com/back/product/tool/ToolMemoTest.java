@@ -0,0 +1,73 @@
+package com.back.product.tool;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ToolMemoTest {
+
+    @Test
+    @DisplayName("같은 키는 한 번만 계산한다")
+    void t1() {
+        // given
+        ToolMemo memo = new ToolMemo(null);
+        AtomicInteger calls = new AtomicInteger();
+
+        // when
+        String first = memo.get("key", () -> "value-" + calls.incrementAndGet());
+        String second = memo.get("key", () -> "value-" + calls.incrementAndGet());
+
+        // then
+        assertEquals("value-1", first);
+        assertEquals("value-1", second);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("더 큰 k 의 결과가 있으면 작은 k 는 그 앞부분으로 응답한다")
+    void t2() {
+        // given
+        ToolMemo memo = new ToolMemo(null);
+        AtomicInteger calls = new AtomicInteger();
+
+        // when
+        List<Integer> top10 = memo.getTop("key", 10, k -> range(k, calls));
+        List<Integer> top3 = memo.getTop("key", 3, k -> range(k, calls));
+        List<Integer> top20 = memo.getTop("key", 20, k -> range(k, calls));
+
+        // then
+        assertEquals(10, top10.size());
+        assertEquals(List.of(0, 1, 2), top3);
+        assertEquals(20, top20.size());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    @DisplayName("결과가 요청한 k 보다 적었다면 더 큰 k 도 다시 계산하지 않는다")
+    void t3() {
+        // given
+        ToolMemo memo = new ToolMemo(null);
+        AtomicInteger calls = new AtomicInteger();
+
+        // when
+        memo.getTop("key", 5, k -> {
+            calls.incrementAndGet();
+            return List.of(1, 2);
+        });
+        List<Integer> top10 = memo.getTop("key", 10, k -> range(k, calls));
+
+        // then
+        assertEquals(List.of(1, 2), top10);
+        assertEquals(1, calls.get());
+    }
+
+    private static List<Integer> range(int k, AtomicInteger calls) {
+        calls.incrementAndGet();
+        return IntStream.range(0, k).boxed().toList();
+    }
+}
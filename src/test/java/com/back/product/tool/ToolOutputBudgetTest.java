@@ -0,0 +1,47 @@
+package com.back.product.tool;
+
+import com.back.product.config.ProductChatProperties;
+import com.back.product.dto.ProductView;
+import com.back.product.tool.ProductSearchTool.ProductInfo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ToolOutputBudgetTest {
+
+    @Test
+    @DisplayName("추정 토큰이 예산을 넘으면 뒤쪽 상품을 잘라낸다")
+    void t1() {
+        // given
+        ToolOutputBudget budget = new ToolOutputBudget(new ProductChatProperties.Budget(100, 10, 50, 50));
+        List<ProductInfo> items = IntStream.range(0, 50)
+                .mapToObj(i -> new ProductInfo((long) i, "상품 " + i, List.of("키워드", "keyword")))
+                .toList();
+
+        // when
+        List<ProductInfo> fitted = budget.fit(items);
+
+        // then
+        assertFalse(fitted.isEmpty());
+        assertTrue(fitted.size() < items.size());
+        assertTrue(fitted.stream().mapToInt(ToolOutputBudget::estimate).sum() <= 100);
+        assertEquals(items.subList(0, fitted.size()), fitted);
+    }
+
+    @Test
+    @DisplayName("상품당 키워드 수를 제한한다")
+    void t2() {
+        // given
+        ToolOutputBudget budget = new ToolOutputBudget(new ProductChatProperties.Budget(0, 2, 0, 0));
+
+        // when
+        ProductInfo info = budget.toInfo(new ProductView(1L, "노트북", List.of("a", "b", "c"), null));
+
+        // then
+        assertEquals(List.of("a", "b"), info.keywords());
+    }
+}